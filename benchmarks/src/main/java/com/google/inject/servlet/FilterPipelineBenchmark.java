@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import com.google.inject.Stage;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link ManagedFilterPipeline#dispatch} for requests matching a servlet, only filters, or nothing, with a
+ * pipeline of servlet-style and regex filters, padded with filters matching none of the requests, and of a whole
+ * {@link GuiceFilter#doFilter} for a request matching a servlet. {@code dispatchToServletManyPaths} cycles through
+ * requests carrying ids in their paths, more than any cache of paths would keep. The container objects are dynamic proxies returning
+ * fixed values. Run with {@code -prof gc} to report the bytes allocated per request ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterPipelineBenchmark {
+
+    @Singleton
+    public static class PassFilter implements Filter {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, jakarta.servlet.ServletException {
+            chain.doFilter(request, response);
+        }
+    }
+
+    @Singleton
+    public static class NoopServlet extends HttpServlet {
+        // the request escapes, as with a real servlet: the JIT cannot optimize its wrappers away
+        ServletRequest last;
+
+        @Override
+        public void service(ServletRequest req, ServletResponse res) {
+            last = req;
+        }
+    }
+
+    private static final int PATHS = 8192;
+
+    @Param({"0", "21"})
+    public int unmatchedFilters;
+
+    private ManagedFilterPipeline pipeline;
+    private GuiceFilter guiceFilter;
+    private HttpServletRequest servletRequest;
+    private HttpServletRequest filteredRequest;
+    private HttpServletRequest unmatchedRequest;
+    private HttpServletRequest[] idRequests;
+    private int next;
+    private HttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setup() throws Exception {
+        Injector injector = Guice.createInjector(Stage.PRODUCTION, new ServletModule() {
+            @Override
+            protected void configureServlets() {
+                filter("/*").through(PassFilter.class);
+                filter("/static/*", "*.css", "*.js").through(PassFilter.class);
+                filterRegex("/api/v[0-9]+/.*").through(PassFilter.class);
+                filter("/app/*").through(PassFilter.class);
+                for (int i = 0; i < unmatchedFilters; i++) {
+                    filter("/module" + i + "/*").through(PassFilter.class);
+                }
+                serve("/app/*").with(NoopServlet.class);
+                serve("*.html").with(NoopServlet.class);
+            }
+        });
+        ServletContext servletContext = stub(ServletContext.class, new HashMap<String, Object>());
+        pipeline = injector.getInstance(ManagedFilterPipeline.class);
+        pipeline.initPipeline(servletContext);
+        guiceFilter = injector.getInstance(GuiceFilter.class);
+        servletRequest = request("/app/users/42");
+        filteredRequest = request("/api/v2/users");
+        unmatchedRequest = request("/images/logo.png");
+        idRequests = new HttpServletRequest[PATHS];
+        for (int i = 0; i < PATHS; i++) {
+            idRequests[i] = request("/app/users/" + (100000 + i));
+        }
+        response = stub(HttpServletResponse.class, new HashMap<String, Object>());
+        chain = stub(FilterChain.class, new HashMap<String, Object>());
+    }
+
+    @Benchmark
+    public void dispatchToServlet() throws Exception {
+        pipeline.dispatch(servletRequest, response, chain);
+    }
+
+    @Benchmark
+    public void dispatchToServletManyPaths() throws Exception {
+        pipeline.dispatch(idRequests[next++ & PATHS - 1], response, chain);
+    }
+
+    @Benchmark
+    public void dispatchThroughFilters() throws Exception {
+        pipeline.dispatch(filteredRequest, response, chain);
+    }
+
+    @Benchmark
+    public void dispatchUnmatched() throws Exception {
+        pipeline.dispatch(unmatchedRequest, response, chain);
+    }
+
+    @Benchmark
+    public void guiceFilterToServlet() throws Exception {
+        guiceFilter.doFilter(servletRequest, response, chain);
+    }
+
+    private static HttpServletRequest request(String path) {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("getRequestURI", "/ctx" + path);
+        values.put("getContextPath", "/ctx");
+        values.put("getServletPath", "");
+        values.put("getMethod", "GET");
+        return stub(HttpServletRequest.class, values);
+    }
+
+    private static <T> T stub(Class<T> type, final Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(FilterPipelineBenchmark.class.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                Object value = values.get(method.getName());
+                if (value != null)
+                    return value;
+                Class<?> returnType = method.getReturnType();
+                if (returnType == boolean.class)
+                    return false;
+                if (returnType == int.class)
+                    return 0;
+                if (returnType == long.class)
+                    return 0L;
+                return null;
+            }
+        }));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import com.google.inject.Stage;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding the servlet serving a request in {@link ManagedServletPipeline#service} with {@code mappings}
+ * servlet mappings: a quarter of literal paths, of {@code /prefix/*}, of {@code *.ext} and of regular expressions. The
+ * requests match the last literal mapping, the last prefix mapping, or nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServletPipelineBenchmark {
+
+    @Singleton
+    public static class NoopServlet extends HttpServlet {
+        @Override
+        public void service(ServletRequest req, ServletResponse res) {
+        }
+    }
+
+    @Param({"10", "300"})
+    public int mappings;
+
+    private ManagedServletPipeline pipeline;
+    private HttpServletRequest literalRequest;
+    private HttpServletRequest prefixRequest;
+    private HttpServletRequest unmatchedRequest;
+    private HttpServletResponse response;
+
+    @Setup
+    public void setup() throws Exception {
+        final int each = mappings / 4;
+        Injector injector = Guice.createInjector(Stage.PRODUCTION, new ServletModule() {
+            @Override
+            protected void configureServlets() {
+                for (int i = 0; i < each; i++) {
+                    serve("/page" + i).with(NoopServlet.class);
+                    serve("/module" + i + "/*").with(NoopServlet.class);
+                    serve("*.ext" + i).with(NoopServlet.class);
+                    serveRegex("/api/v" + i + "/[a-z]+").with(NoopServlet.class);
+                }
+            }
+        });
+        pipeline = injector.getInstance(ManagedServletPipeline.class);
+        pipeline.init(stub(ServletContext.class, new HashMap<String, Object>()), injector);
+        literalRequest = request("/page" + (each - 1));
+        prefixRequest = request("/module" + (each - 1) + "/users/42");
+        unmatchedRequest = request("/images/logo.png");
+        response = stub(HttpServletResponse.class, new HashMap<String, Object>());
+    }
+
+    @Benchmark
+    public boolean serveLiteral() throws Exception {
+        return pipeline.service(literalRequest, response);
+    }
+
+    @Benchmark
+    public boolean servePrefix() throws Exception {
+        return pipeline.service(prefixRequest, response);
+    }
+
+    @Benchmark
+    public boolean serveUnmatched() throws Exception {
+        return pipeline.service(unmatchedRequest, response);
+    }
+
+    private static HttpServletRequest request(String path) {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("getRequestURI", "/ctx" + path);
+        values.put("getContextPath", "/ctx");
+        values.put("getServletPath", "");
+        values.put("getMethod", "GET");
+        return stub(HttpServletRequest.class, values);
+    }
+
+    private static <T> T stub(Class<T> type, final Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(ServletPipelineBenchmark.class.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                Object value = values.get(method.getName());
+                if (value != null)
+                    return value;
+                Class<?> returnType = method.getReturnType();
+                if (returnType == boolean.class)
+                    return false;
+                if (returnType == int.class)
+                    return 0;
+                if (returnType == long.class)
+                    return 0L;
+                return null;
+            }
+        }));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the regular expression {@link UriPatternMatcher}s: a URI rejected by the literal prefix of the pattern, a
+ * matching URI, the servlet path extracted after a match, and a URI making a backtracking matcher explode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriPatternMatcherBenchmark {
+
+    @Param({"REGEX", "LINEAR_REGEX"})
+    public UriPatternType type;
+
+    private UriPatternMatcher api;
+    private UriPatternMatcher nested;
+    private String matching;
+    private String other;
+    private String pathological;
+
+    @Setup
+    public void setup() {
+        api = UriPatternType.get(type, "/api/v[0-9]+/(.*)");
+        nested = UriPatternType.get(type, "/x/(.*a){10}");
+        matching = "/api/v2/users/42";
+        other = "/images/logo.png";
+        StringBuilder uri = new StringBuilder("/x/");
+        for (int i = 0; i < 16; i++) {
+            uri.append('a');
+        }
+        pathological = uri.append('!').toString();
+    }
+
+    @Benchmark
+    public boolean rejectByPrefix() {
+        return api.matches(other);
+    }
+
+    @Benchmark
+    public boolean match() {
+        return api.matches(matching);
+    }
+
+    @Benchmark
+    public String matchThenExtractPath() {
+        // what the servlet pipeline does: the start of the group found by the match gives the path
+        int start = ((UriPatternType.AbstractRegexUriPatternMatcher) api).matchStart(matching);
+        return UriPatternType.AbstractRegexUriPatternMatcher.pathBefore(matching, start);
+    }
+
+    @Benchmark
+    public boolean nestedQuantifiers() {
+        return nested.matches(pathological);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.benchmarks;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.google.inject.Stage;
+import com.mycila.guice.ext.closeable.CloseableInjector;
+import com.mycila.guice.ext.closeable.CloseableModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of going through a {@link CloseableInjector} instead of the plain {@link Injector} to get a singleton, by
+ * {@code getInstance()} or through a provider guarded by {@link CloseableModule#withGuardedProviders()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class CloseableDelegationBenchmark {
+
+    @Singleton
+    public static class Service {
+    }
+
+    private Injector injector;
+    private CloseableInjector closeable;
+    private Provider<Service> provider;
+    private Provider<Service> guardedProvider;
+
+    @Setup
+    public void createInjector() {
+        injector = Guice.createInjector(Stage.PRODUCTION, new CloseableModule().withGuardedProviders());
+        closeable = injector.getInstance(CloseableInjector.class);
+        provider = injector.getProvider(Service.class);
+        guardedProvider = closeable.getProvider(Service.class);
+    }
+
+    @Benchmark
+    public Service injectorGetInstance() {
+        return injector.getInstance(Service.class);
+    }
+
+    @Benchmark
+    public Service closeableGetInstance() {
+        return closeable.getInstance(Service.class);
+    }
+
+    @Benchmark
+    public Service providerGet() {
+        return provider.get();
+    }
+
+    @Benchmark
+    public Service guardedProviderGet() {
+        return guardedProvider.get();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.benchmarks;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+import com.google.inject.Stage;
+import com.google.inject.name.Names;
+import com.mycila.guice.ext.closeable.CloseableInjector;
+import com.mycila.guice.ext.closeable.CloseableModule;
+import com.mycila.guice.ext.jsr250.Jsr250Module;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link CloseableInjector#close()} with the JSR-250 extension on an injector holding {@code singletons}
+ * singletons with a {@code @PreDestroy} method, each depending on the previous one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class CloseableInjectorBenchmark {
+
+    public static class Bean {
+        @Inject
+        Service service;
+        boolean destroyed;
+
+        @PreDestroy
+        void destroy() {
+            destroyed = true;
+        }
+    }
+
+    @Singleton
+    public static class Service {
+        boolean destroyed;
+
+        @PreDestroy
+        void destroy() {
+            destroyed = true;
+        }
+    }
+
+    @Param({"100", "1000"})
+    public int singletons;
+
+    private CloseableInjector injector;
+
+    @Setup(Level.Invocation)
+    public void createInjector() {
+        injector = Guice.createInjector(Stage.PRODUCTION, new Jsr250Module(), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                for (int i = 0; i < singletons; i++)
+                    bind(Key.get(Bean.class, Names.named(String.valueOf(i)))).to(Bean.class).in(Singleton.class);
+            }
+        }).getInstance(CloseableInjector.class);
+    }
+
+    @Benchmark
+    public void close() {
+        injector.close();
+    }
+}
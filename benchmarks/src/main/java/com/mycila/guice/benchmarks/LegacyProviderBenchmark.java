@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.benchmarks;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Stage;
+import com.google.inject.name.Names;
+import com.mycila.guice.ext.legacy.LegacyProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code LegacyProvider.get()} for the constructor, factory and method injection variants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LegacyProviderBenchmark {
+
+    public static class Legacy {
+        final String name;
+        Integer value;
+
+        Legacy(String name) {
+            this.name = name;
+        }
+
+        void setValue(Integer value) {
+            this.value = value;
+        }
+    }
+
+    public static class LegacyFactory {
+        public Legacy create(String name) {
+            return new Legacy(name);
+        }
+    }
+
+    private static final Key<Legacy> CONSTRUCTOR = Key.get(Legacy.class, Names.named("constructor"));
+    private static final Key<Legacy> FACTORY = Key.get(Legacy.class, Names.named("factory"));
+    private static final Key<Legacy> METHOD = Key.get(Legacy.class, Names.named("method"));
+
+    private Injector injector;
+
+    @Setup
+    public void setup() {
+        injector = Guice.createInjector(Stage.PRODUCTION, new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(String.class).toInstance("legacy");
+                bind(Integer.class).toInstance(42);
+                bind(CONSTRUCTOR).toProvider(LegacyProvider.of(Legacy.class).withConstructor(String.class));
+                bind(FACTORY).toProvider(LegacyProvider.of(Legacy.class).withFactory(LegacyFactory.class, "create", String.class));
+                bind(METHOD).toProvider(LegacyProvider.of(Legacy.class).withConstructor(String.class).inject("setValue", Integer.class));
+            }
+        });
+    }
+
+    @Benchmark
+    public Legacy constructor() {
+        return injector.getInstance(CONSTRUCTOR);
+    }
+
+    @Benchmark
+    public Legacy factory() {
+        return injector.getInstance(FACTORY);
+    }
+
+    @Benchmark
+    public Legacy methodInjection() {
+        return injector.getInstance(METHOD);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.benchmarks;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.MembersInjector;
+import com.google.inject.Provider;
+import com.google.inject.Stage;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.TypeEncounter;
+import com.google.inject.spi.TypeListener;
+import com.mycila.guice.ext.injection.KeyProviderSkeleton;
+import com.mycila.guice.ext.injection.MBinder;
+import com.mycila.guice.ext.injection.MethodInvoker;
+import com.mycila.guice.ext.injection.Reflect;
+import com.google.inject.matcher.Matchers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-instance cost of {@code MemberInjectorTypeListener} on a prototype with annotated
+ * fields and methods.
+ * <p>
+ * {@code perCallResolution} replays what the listener did before injection plans existed:
+ * resolving keys and providers for every member of every instance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberInjectionBenchmark {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Autowire {
+    }
+
+    public static class AutowireKeyProvider extends KeyProviderSkeleton<Autowire> {
+    }
+
+    public static class Service {
+    }
+
+    public static class Bean {
+        @Autowire
+        Service a;
+        @Autowire
+        Service b;
+        @Autowire
+        Injector c;
+        Service d;
+
+        @Autowire
+        void init(Service service, Injector injector) {
+            d = service;
+        }
+    }
+
+    private Injector withPlan;
+    private Injector perCall;
+
+    @Setup
+    public void setup() {
+        withPlan = Guice.createInjector(Stage.PRODUCTION, new AbstractModule() {
+            @Override
+            protected void configure() {
+                MBinder.wrap(binder()).bindAnnotationInjector(Autowire.class, AutowireKeyProvider.class);
+            }
+        });
+        perCall = Guice.createInjector(Stage.PRODUCTION, new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindListener(Matchers.any(), new PerCallTypeListener());
+            }
+        });
+    }
+
+    @Benchmark
+    public Bean injectionPlan() {
+        return withPlan.getInstance(Bean.class);
+    }
+
+    @Benchmark
+    public Bean perCallResolution() {
+        return perCall.getInstance(Bean.class);
+    }
+
+    static class PerCallTypeListener implements TypeListener {
+        @Override
+        public <I> void hear(final TypeLiteral<I> type, TypeEncounter<I> encounter) {
+            final AutowireKeyProvider keyProvider = new AutowireKeyProvider();
+            final Provider<Injector> injector = encounter.getProvider(Injector.class);
+            final Iterable<Field> fields = Reflect.findAllAnnotatedFields(type.getRawType(), Autowire.class);
+            final Iterable<MethodInvoker> methods = Reflect.findAllAnnotatedInvokables(type.getRawType(), Autowire.class);
+            encounter.register(new MembersInjector<I>() {
+                @Override
+                public void injectMembers(I injectee) {
+                    for (Field field : fields) {
+                        Object value = injector.get().getProvider(keyProvider.getKey(type, field, field.getAnnotation(Autowire.class))).get();
+                        field.setAccessible(true);
+                        try {
+                            field.set(injectee, value);
+                        } catch (IllegalAccessException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    for (MethodInvoker invokable : methods) {
+                        List<Key<?>> keys = keyProvider.getParameterKeys(type, invokable.method, invokable.getAnnotation(Autowire.class));
+                        Object[] parameters = new Object[keys.size()];
+                        for (int i = 0; i < parameters.length; i++)
+                            parameters[i] = injector.get().getProvider(keys.get(i)).get();
+                        invokable.invoke(injectee, parameters);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.benchmarks;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Stage;
+import com.mycila.guice.ext.closeable.CloseableModule;
+import com.mycila.guice.ext.jsr250.Jsr250Module;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of provisioning prototypes with the JSR-250 extension, compared with plain Guice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostConstructBenchmark {
+
+    public static class Service {
+    }
+
+    public static class WithPostConstruct {
+        @Resource
+        Service service;
+        int initialized;
+
+        public void method1() {
+        }
+
+        @PostConstruct
+        public void init() {
+            initialized++;
+        }
+    }
+
+    public static class WithoutPostConstruct {
+        public void method1() {
+        }
+
+        public void method2() {
+        }
+    }
+
+    private Injector plain;
+    private Injector jsr250;
+
+    @Setup
+    public void setup() {
+        plain = Guice.createInjector(Stage.PRODUCTION);
+        jsr250 = Guice.createInjector(Stage.PRODUCTION, new Jsr250Module(), new CloseableModule());
+    }
+
+    @Benchmark
+    public Object plainGuice() {
+        return plain.getInstance(WithoutPostConstruct.class);
+    }
+
+    @Benchmark
+    public Object jsr250WithoutPostConstruct() {
+        return jsr250.getInstance(WithoutPostConstruct.class);
+    }
+
+    @Benchmark
+    public Object jsr250WithPostConstruct() {
+        return jsr250.getInstance(WithPostConstruct.class);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.benchmarks;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.mycila.guice.ext.injection.Reflect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the per-class lookups of {@code Reflect} under 32 threads, once the caches are warm.
+ * <p>
+ * {@code guavaCache} replays the caches used before they were stored in {@link ClassValue}s: a Guava
+ * {@link LoadingCache} with weak keys and soft values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class ReflectLookupBenchmark {
+
+    private static final Class<?>[] TYPES = {
+        String.class, Integer.class, java.util.ArrayList.class, java.util.HashMap.class,
+        Thread.class, StringBuilder.class, java.util.concurrent.ConcurrentHashMap.class, ReflectLookupBenchmark.class};
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Marker {
+    }
+
+    private final LoadingCache<Class<?>, List<Method>> guava = CacheBuilder.newBuilder()
+        .weakKeys()
+        .softValues()
+        .build(new CacheLoader<Class<?>, List<Method>>() {
+            @Override
+            public List<Method> load(Class<?> type) {
+                return Lists.newArrayList(Reflect.findAllMethods(type));
+            }
+        });
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        Class<?> type() {
+            return TYPES[next++ & (TYPES.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public Object classValue(Cursor cursor) {
+        return Reflect.findAllMethods(cursor.type());
+    }
+
+    @Benchmark
+    public Object classValueAnnotated(Cursor cursor) {
+        return Reflect.findAllAnnotatedMethods(cursor.type(), Marker.class);
+    }
+
+    @Benchmark
+    public Object guavaCache(Cursor cursor) {
+        return guava.getUnchecked(cursor.type());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.benchmarks;
+
+import com.google.common.collect.Iterables;
+import com.mycila.guice.ext.injection.Reflect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold cost of scanning a four-level class hierarchy for annotated methods and fields, as done once per type at
+ * injector creation.
+ * <p>
+ * Each invocation loads the hierarchy in a fresh class loader so that none of the {@code Reflect} caches apply.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReflectScanBenchmark {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Marker {
+    }
+
+    public static class Level1 {
+        int f1, f2, f3;
+
+        @Marker
+        String marked1;
+
+        public void m1() {
+        }
+
+        public void m2(String s) {
+        }
+
+        protected void m3(int i) {
+        }
+
+        @Marker
+        void init1() {
+        }
+    }
+
+    public static class Level2 extends Level1 {
+        long g1, g2, g3;
+
+        @Override
+        public void m1() {
+        }
+
+        public void n1() {
+        }
+
+        public void n2(Object o) {
+        }
+
+        private void n3() {
+        }
+    }
+
+    public static class Level3 extends Level2 {
+        double h1, h2;
+
+        @Marker
+        Object marked3;
+
+        @Override
+        public void m2(String s) {
+        }
+
+        public void o1() {
+        }
+
+        public void o2(int a, int b) {
+        }
+    }
+
+    public static class Level4 extends Level3 {
+        String i1, i2;
+
+        @Override
+        public void n1() {
+        }
+
+        public void p1() {
+        }
+
+        @Marker
+        public void init4() {
+        }
+    }
+
+    private URLClassLoader classLoader;
+    private Class<?> type;
+    private Class<? extends Annotation> marker;
+
+    @Setup(Level.Invocation)
+    @SuppressWarnings("unchecked")
+    public void load() throws Exception {
+        URL location = ReflectScanBenchmark.class.getProtectionDomain().getCodeSource().getLocation();
+        classLoader = new URLClassLoader(new URL[]{location}, ClassLoader.getPlatformClassLoader());
+        type = classLoader.loadClass(Level4.class.getName());
+        marker = (Class<? extends Annotation>) classLoader.loadClass(Marker.class.getName());
+    }
+
+    @TearDown(Level.Invocation)
+    public void unload() throws IOException {
+        classLoader.close();
+    }
+
+    @Benchmark
+    public int scanAnnotatedMembers() {
+        return Iterables.size(Reflect.findAllAnnotatedMethods(type, marker)) + Iterables.size(Reflect.findAllAnnotatedFields(type, marker));
+    }
+}
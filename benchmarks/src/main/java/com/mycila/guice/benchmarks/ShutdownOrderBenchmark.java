@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.benchmarks;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+import com.google.inject.Stage;
+import com.google.inject.name.Names;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.ProviderWithDependencies;
+import com.mycila.guice.ext.closeable.CloseableInjector;
+import com.mycila.guice.ext.closeable.CloseableModule;
+import com.mycila.guice.ext.jsr250.Jsr250Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of ordering the singletons of a large injector when closing it with the JSR-250 extension. Each of the
+ * {@code bindings} singleton bindings depends on the previous one ({@code chain}, as deep as it gets) or on its parent
+ * in a binary tree ({@code tree}, a few levels deep but wide).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xss512k")
+public class ShutdownOrderBenchmark {
+
+    static class Node implements ProviderWithDependencies<Object> {
+        final Set<Dependency<?>> dependencies;
+
+        Node(Set<Dependency<?>> dependencies) {
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public Object get() {
+            return new Object();
+        }
+
+        @Override
+        public Set<Dependency<?>> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    @Param({"50000"})
+    public int bindings;
+
+    @Param({"chain", "tree"})
+    public String shape;
+
+    private CloseableInjector injector;
+
+    @Setup(Level.Invocation)
+    public void createInjector() {
+        injector = Guice.createInjector(Stage.PRODUCTION, new Jsr250Module(), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                for (int i = 0; i < bindings; i++) {
+                    int parent = "chain".equals(shape) ? i - 1 : (i - 1) / 2;
+                    Set<Dependency<?>> dependencies = i == 0 ?
+                        Collections.<Dependency<?>>emptySet() :
+                        Collections.<Dependency<?>>singleton(Dependency.get(key(parent)));
+                    bind(key(i)).toProvider(new Node(dependencies)).in(Singleton.class);
+                }
+            }
+        }).getInstance(CloseableInjector.class);
+    }
+
+    @Benchmark
+    public void close() {
+        injector.close();
+    }
+
+    private static Key<Object> key(int index) {
+        return Key.get(Object.class, Names.named(String.valueOf(index)));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.closeable;
+
+import com.google.inject.Provider;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Closed state of a {@link CloseableInjector}, shared by the providers it hands out when
+ * {@link CloseableModule#withGuardedProviders()} is used.
+ * <p>
+ * The state is read with opaque semantics: a plain load on the usual hardware, which is enough since it only
+ * switches once, and {@link #close()} is followed by a full fence so that it is promptly seen by the other threads.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+final class CloseGuard {
+
+    private static final VarHandle CLOSED;
+
+    static {
+        try {
+            CLOSED = MethodHandles.lookup().findVarHandle(CloseGuard.class, "closed", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final boolean guardProviders;
+
+    @SuppressWarnings("unused") // accessed through CLOSED
+    private boolean closed;
+
+    CloseGuard(boolean guardProviders) {
+        this.guardProviders = guardProviders;
+    }
+
+    boolean isClosed() {
+        return (boolean) CLOSED.getOpaque(this);
+    }
+
+    void check() {
+        if (isClosed()) throw new IllegalStateException("Injector closed !");
+    }
+
+    void close() {
+        CLOSED.setRelease(this, true);
+        VarHandle.fullFence();
+    }
+
+    <T> Provider<T> guard(final Provider<T> provider) {
+        return new Provider<T>() {
+            @Override
+            public T get() {
+                check();
+                return provider.get();
+            }
+
+            @Override
+            public String toString() {
+                return provider.toString();
+            }
+        };
+    }
+
+}
@@ -16,11 +16,78 @@
 package com.mycila.guice.ext.closeable;
 
 import com.google.inject.Injector;
+import com.google.inject.Module;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  * date 2013-07-21
  */
 public interface CloseableInjector extends Injector {
+
+    /**
+     * Closes this injector, notifying the {@link InjectorCloseListener}s one after the other, the last created first.
+     */
     void close();
+
+    /**
+     * Closes this injector without waiting for the {@link InjectorCloseListener}s: they are notified concurrently on
+     * new daemon threads, except the {@link Sequential} ones which are notified afterwards, one after the other.
+     * <p>
+     * The default implementation closes the injector with {@link #close()} in the calling thread.
+     *
+     * @return a future completed once all listeners have been notified, with the time each one took, or completed
+     * exceptionally with the first failure of a listener. Completed immediately if the injector is already closed.
+     * The default implementation reports no durations.
+     */
+    default CompletableFuture<Map<InjectorCloseListener, Duration>> closeAsync() {
+        CompletableFuture<Map<InjectorCloseListener, Duration>> future = new CompletableFuture<Map<InjectorCloseListener, Duration>>();
+        try {
+            close();
+            future.complete(Collections.<InjectorCloseListener, Duration>emptyMap());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Same as {@link #closeAsync()}, notifying the listeners with the given executor.
+     * <p>
+     * The default implementation runs {@link #close()} with the executor.
+     *
+     * @param executor runs the notification of the listeners
+     * @return a future completed once all listeners have been notified, with the time each one took, or completed
+     * exceptionally with the first failure of a listener. The default implementation reports no durations.
+     */
+    default CompletableFuture<Map<InjectorCloseListener, Duration>> closeAsync(Executor executor) {
+        return CompletableFuture.runAsync(new Runnable() {
+            @Override
+            public void run() {
+                close();
+            }
+        }, executor).thenApply(new Function<Void, Map<InjectorCloseListener, Duration>>() {
+            @Override
+            public Map<InjectorCloseListener, Duration> apply(Void done) {
+                return Collections.emptyMap();
+            }
+        });
+    }
+
+    /**
+     * Creates a child injector which can be closed on its own, releasing only its singletons, and which is closed
+     * with this injector otherwise. Children are closed in parallel, before this injector. They are tracked weakly:
+     * an unused child which has not been closed can still be garbage collected.
+     */
+    @Override
+    CloseableInjector createChildInjector(Iterable<? extends Module> modules);
+
+    @Override
+    CloseableInjector createChildInjector(Module... modules);
 }
@@ -18,18 +18,52 @@ package com.mycila.guice.ext.closeable;
 import com.google.inject.AbstractModule;
 
 import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  * date 2013-07-21
  */
 public class CloseableModule extends AbstractModule {
+
+    private boolean guardProviders;
+    private final List<ShutdownMetrics> metrics = new ArrayList<ShutdownMetrics>();
+
     public CloseableModule() {
         super();
     }
 
+    /**
+     * Makes the providers handed out by the {@link CloseableInjector} fail once it is closed, like its own methods.
+     * They all share the closed state of the injector, which is cheap to check on each {@code get()}.
+     *
+     * @return this module
+     */
+    public CloseableModule withGuardedProviders() {
+        this.guardProviders = true;
+        return this;
+    }
+
+    /**
+     * Reports the time taken to close the injectors to the given metrics instead of logging them with
+     * {@link LoggingShutdownMetrics}. Can be called several times to report to several metrics.
+     *
+     * @param metrics notified of the time taken to close the injectors
+     * @return this module
+     */
+    public CloseableModule withShutdownMetrics(ShutdownMetrics metrics) {
+        this.metrics.add(metrics);
+        return this;
+    }
+
     @Override
     protected void configure() {
+        bind(ShutdownMetrics.class).toInstance(metrics.isEmpty() ? new LoggingShutdownMetrics() : ShutdownMetrics.of(metrics));
+        bind(CloseGuard.class).toInstance(new CloseGuard(guardProviders));
+        ProvisionedSingletons singletons = new ProvisionedSingletons();
+        bind(ProvisionedSingletons.class).toInstance(singletons);
+        install(singletons.module());
         bind(CloseableInjector.class).to(MycilaCloseableInjector.class).in(Singleton.class);
     }
 }
@@ -15,10 +15,21 @@
  */
 package com.mycila.guice.ext.closeable;
 
+import com.google.inject.Injector;
+
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  * date 2013-07-21
  */
 public interface InjectorCloseListener {
     void onInjectorClosing();
+
+    /**
+     * Called when a child injector created by the {@link CloseableInjector} of this listener is closed, after the
+     * listeners of the child itself.
+     *
+     * @param child the child injector, still usable during this call
+     */
+    default void onChildInjectorClosing(Injector child) {
+    }
 }
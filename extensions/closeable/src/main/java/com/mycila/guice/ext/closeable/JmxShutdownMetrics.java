@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.closeable;
+
+import com.google.inject.Injector;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * A {@link ShutdownMetrics} exposing the slowest listeners and {@code @PreDestroy} methods as an MBean, so that they can
+ * be read from a JMX console once an injector has been closed:
+ * <pre>
+ * JmxShutdownMetrics metrics = new JmxShutdownMetrics().register();
+ * Guice.createInjector(new CloseableModule().withShutdownMetrics(metrics), ...);
+ * </pre>
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+public class JmxShutdownMetrics implements ShutdownMetrics, ShutdownMetricsMXBean {
+
+    public static final String DEFAULT_NAME = "com.mycila.guice:type=ShutdownMetrics";
+
+    private final AtomicLong closedInjectors = new AtomicLong();
+    private final AtomicLong lastCloseNanos = new AtomicLong();
+    private final AtomicLong maxCloseNanos = new AtomicLong();
+    private final Map<String, Long> listenerMaxNanos = new ConcurrentHashMap<String, Long>();
+    private final Map<String, Long> preDestroyMaxNanos = new ConcurrentHashMap<String, Long>();
+
+    private MBeanServer server;
+    private ObjectName name;
+
+    /**
+     * Registers this MBean in the platform MBean server, under {@link #DEFAULT_NAME}
+     */
+    public JmxShutdownMetrics register() {
+        try {
+            return register(ManagementFactory.getPlatformMBeanServer(), new ObjectName(DEFAULT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    public synchronized JmxShutdownMetrics register(MBeanServer server, ObjectName name) {
+        if (this.server != null) {
+            throw new IllegalStateException("Already registered as " + this.name);
+        }
+        try {
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register " + name + ": " + e.getMessage(), e);
+        }
+        this.server = server;
+        this.name = name;
+        return this;
+    }
+
+    public synchronized void unregister() {
+        if (server != null) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // already unregistered by someone else
+            }
+            server = null;
+            name = null;
+        }
+    }
+
+    @Override
+    public void listenerNotified(Injector injector, InjectorCloseListener listener, Duration duration) {
+        max(listenerMaxNanos, listener.getClass().getName(), duration.toNanos());
+    }
+
+    @Override
+    public void preDestroyed(Injector injector, Object instance, Duration duration) {
+        max(preDestroyMaxNanos, instance.getClass().getName(), duration.toNanos());
+    }
+
+    @Override
+    public void injectorClosed(Injector injector, Duration duration) {
+        long nanos = duration.toNanos();
+        closedInjectors.incrementAndGet();
+        lastCloseNanos.set(nanos);
+        maxCloseNanos.accumulateAndGet(nanos, new LongBinaryOperator() {
+            @Override
+            public long applyAsLong(long max, long nanos) {
+                return Math.max(max, nanos);
+            }
+        });
+    }
+
+    @Override
+    public long getClosedInjectors() {
+        return closedInjectors.get();
+    }
+
+    @Override
+    public long getLastCloseMillis() {
+        return Duration.ofNanos(lastCloseNanos.get()).toMillis();
+    }
+
+    @Override
+    public long getMaxCloseMillis() {
+        return Duration.ofNanos(maxCloseNanos.get()).toMillis();
+    }
+
+    @Override
+    public Map<String, Long> getListenerMaxMillis() {
+        return millis(listenerMaxNanos);
+    }
+
+    @Override
+    public Map<String, Long> getPreDestroyMaxMillis() {
+        return millis(preDestroyMaxNanos);
+    }
+
+    @Override
+    public void reset() {
+        closedInjectors.set(0);
+        lastCloseNanos.set(0);
+        maxCloseNanos.set(0);
+        listenerMaxNanos.clear();
+        preDestroyMaxNanos.clear();
+    }
+
+    private static void max(Map<String, Long> durations, String type, long nanos) {
+        durations.merge(type, nanos, MAX);
+    }
+
+    private static final BiFunction<Long, Long, Long> MAX = new BiFunction<Long, Long, Long>() {
+        @Override
+        public Long apply(Long max, Long nanos) {
+            return Math.max(max, nanos);
+        }
+    };
+
+    private static Map<String, Long> millis(Map<String, Long> nanos) {
+        Map<String, Long> millis = new TreeMap<String, Long>();
+        for (Map.Entry<String, Long> entry : nanos.entrySet()) {
+            millis.put(entry.getKey(), Duration.ofNanos(entry.getValue()).toMillis());
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.closeable;
+
+import com.google.inject.Injector;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The default {@link ShutdownMetrics}: logs one line per event, made of {@code key=value} pairs so that the slowest
+ * listeners and beans can be found with a log search:
+ * <pre>
+ * event=listener injector=5e8c92f4 type=com.acme.Cache duration_ms=12.031
+ * event=predestroy injector=5e8c92f4 type=com.acme.Pool duration_ms=250.410
+ * event=closed injector=5e8c92f4 duration_ms=263.118
+ * </pre>
+ * Events are logged at {@link Level#FINE} by default.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+public class LoggingShutdownMetrics implements ShutdownMetrics {
+
+    private static final Logger LOGGER = Logger.getLogger(LoggingShutdownMetrics.class.getName());
+
+    private final Level level;
+
+    public LoggingShutdownMetrics() {
+        this(Level.FINE);
+    }
+
+    public LoggingShutdownMetrics(Level level) {
+        this.level = level;
+    }
+
+    @Override
+    public void listenerNotified(Injector injector, InjectorCloseListener listener, Duration duration) {
+        if (LOGGER.isLoggable(level)) {
+            LOGGER.log(level, "event=listener injector=" + id(injector) + " type=" + listener.getClass().getName() + " duration_ms=" + millis(duration));
+        }
+    }
+
+    @Override
+    public void preDestroyed(Injector injector, Object instance, Duration duration) {
+        if (LOGGER.isLoggable(level)) {
+            LOGGER.log(level, "event=predestroy injector=" + id(injector) + " type=" + instance.getClass().getName() + " duration_ms=" + millis(duration));
+        }
+    }
+
+    @Override
+    public void injectorClosed(Injector injector, Duration duration) {
+        if (LOGGER.isLoggable(level)) {
+            LOGGER.log(level, "event=closed injector=" + id(injector) + " duration_ms=" + millis(duration));
+        }
+    }
+
+    private static String id(Injector injector) {
+        return Integer.toHexString(System.identityHashCode(injector));
+    }
+
+    private static String millis(Duration duration) {
+        return String.format(Locale.ROOT, "%.3f", duration.toNanos() / 1_000_000d);
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.mycila.guice.ext.closeable;
 
+import com.google.common.collect.Iterables;
 import com.google.inject.Binding;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
@@ -23,16 +24,32 @@ import com.google.inject.MembersInjector;
 import com.google.inject.Module;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
-import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.spi.Element;
 import com.google.inject.spi.InjectionPoint;
 import com.google.inject.spi.TypeConverterBinding;
 
 import java.lang.annotation.Annotation;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
@@ -40,31 +57,273 @@ import java.util.Set;
  */
 final class MycilaCloseableInjector implements CloseableInjector {
 
-    private volatile boolean closed;
+    // released on close, read behind the guard
+    private Injector injector;
+    private final ProvisionedSingletons singletons;
+    private final CloseGuard guard;
+    private final ShutdownMetrics metrics;
+    private final MycilaCloseableInjector parent;
+    private final Set<MycilaCloseableInjector> children = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<MycilaCloseableInjector, Boolean>()));
 
     @Inject
-    private volatile Injector injector;
+    MycilaCloseableInjector(Injector injector, ProvisionedSingletons singletons, CloseGuard guard, ShutdownMetrics metrics) {
+        this(injector, singletons, guard, metrics, null);
+    }
+
+    private MycilaCloseableInjector(Injector injector, ProvisionedSingletons singletons, CloseGuard guard, ShutdownMetrics metrics, MycilaCloseableInjector parent) {
+        this.injector = injector;
+        this.singletons = singletons;
+        this.guard = guard;
+        this.metrics = metrics;
+        this.parent = parent;
+    }
 
     @Override
     public synchronized void close() {
-        if (!closed && injector != null) {
-            closed = true;
-            Injector current = injector;
-            injector = null;
-            for (Binding<?> binding : current.getAllBindings().values()) {
-                if (Scopes.isSingleton(binding)) {
-                    Object o = binding.getProvider().get();
-                    if (o instanceof InjectorCloseListener) {
-                        ((InjectorCloseListener) o).onInjectorClosing();
+        long start = System.nanoTime();
+        Closing closing = detach();
+        if (closing != null) {
+            try {
+                closeAll(closing.children);
+                for (InjectorCloseListener listener : closing.listeners) {
+                    timed(listener, null, null);
+                }
+                for (InjectorCloseListener listener : closing.ancestors) {
+                    timed(listener, injector, null);
+                }
+            } finally {
+                release(start);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<InjectorCloseListener, Duration>> closeAsync() {
+        final ExecutorService executor = Executors.newCachedThreadPool(DAEMON_THREADS);
+        CompletableFuture<Map<InjectorCloseListener, Duration>> future = closeAsync(executor);
+        future.whenComplete(new BiConsumer<Object, Throwable>() {
+            @Override
+            public void accept(Object result, Throwable failure) {
+                executor.shutdown();
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Map<InjectorCloseListener, Duration>> closeAsync(final Executor executor) {
+        final long start = System.nanoTime();
+        final Closing closing;
+        synchronized (this) {
+            closing = detach();
+        }
+        if (closing == null) {
+            return CompletableFuture.completedFuture(Collections.<InjectorCloseListener, Duration>emptyMap());
+        }
+        final Map<InjectorCloseListener, Duration> durations = Collections.synchronizedMap(new LinkedHashMap<InjectorCloseListener, Duration>());
+        List<CompletableFuture<?>> children = new ArrayList<CompletableFuture<?>>(closing.children.size());
+        for (MycilaCloseableInjector child : closing.children) {
+            children.add(child.closeAsync(executor));
+        }
+        return allOf(children).thenComposeAsync(new Function<Throwable, CompletableFuture<Throwable>>() {
+            @Override
+            public CompletableFuture<Throwable> apply(final Throwable childFailure) {
+                List<CompletableFuture<?>> concurrent = new ArrayList<CompletableFuture<?>>();
+                for (final InjectorCloseListener listener : closing.listeners) {
+                    if (!listener.getClass().isAnnotationPresent(Sequential.class)) {
+                        concurrent.add(CompletableFuture.runAsync(new Runnable() {
+                            @Override
+                            public void run() {
+                                timed(listener, null, durations);
+                            }
+                        }, executor));
+                    }
+                }
+                return allOf(concurrent).thenApply(new Function<Throwable, Throwable>() {
+                    @Override
+                    public Throwable apply(Throwable failure) {
+                        return childFailure != null ? childFailure : failure;
                     }
+                });
+            }
+        }, executor).thenApplyAsync(new Function<Throwable, Map<InjectorCloseListener, Duration>>() {
+            @Override
+            public Map<InjectorCloseListener, Duration> apply(Throwable failure) {
+                try {
+                    // sequential listeners are notified even if a concurrent one failed, like the other ones
+                    for (InjectorCloseListener listener : closing.listeners) {
+                        if (listener.getClass().isAnnotationPresent(Sequential.class)) {
+                            failure = run(listener, null, durations, failure);
+                        }
+                    }
+                    for (InjectorCloseListener listener : closing.ancestors) {
+                        failure = run(listener, injector, durations, failure);
+                    }
+                } finally {
+                    release(start);
+                }
+                if (failure != null) {
+                    throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException(failure);
                 }
+                return durations;
             }
+        }, executor);
+    }
+
+    /**
+     * @return a future completed once all the given futures are, with the first failure, if any
+     */
+    private static CompletableFuture<Throwable> allOf(List<CompletableFuture<?>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle(new BiFunction<Void, Throwable, Throwable>() {
+            @Override
+            public Throwable apply(Void result, Throwable failure) {
+                return failure;
+            }
+        });
+    }
+
+    private Throwable run(InjectorCloseListener listener, Injector child, Map<InjectorCloseListener, Duration> durations, Throwable failure) {
+        try {
+            timed(listener, child, durations);
+        } catch (RuntimeException e) {
+            if (failure == null) return e;
         }
+        return failure;
     }
 
+    /**
+     * @param durations where to record the time taken by the listener, or null
+     */
+    private void timed(InjectorCloseListener listener, Injector child, Map<InjectorCloseListener, Duration> durations) {
+        long start = System.nanoTime();
+        try {
+            if (child == null) {
+                listener.onInjectorClosing();
+            } else {
+                listener.onChildInjectorClosing(child);
+            }
+        } finally {
+            Duration duration = Duration.ofNanos(System.nanoTime() - start);
+            metrics.listenerNotified(child == null ? injector : child, listener, duration);
+            if (durations != null) {
+                durations.put(listener, duration);
+            }
+        }
+    }
+
+    /**
+     * Closes the given children in parallel, and waits for them.
+     */
+    private static void closeAll(List<MycilaCloseableInjector> children) {
+        if (children.size() == 1) {
+            children.get(0).close();
+        } else if (!children.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(children.size(), Runtime.getRuntime().availableProcessors()), DAEMON_THREADS);
+            try {
+                List<CompletableFuture<?>> closing = new ArrayList<CompletableFuture<?>>(children.size());
+                for (final MycilaCloseableInjector child : children) {
+                    closing.add(CompletableFuture.runAsync(new Runnable() {
+                        @Override
+                        public void run() {
+                            child.close();
+                        }
+                    }, executor));
+                }
+                Throwable failure = allOf(closing).join();
+                if (failure != null) {
+                    Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                    if (cause instanceof Error) throw (Error) cause;
+                    throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Marks this injector as closed.
+     *
+     * @return what to close, or null if already closed
+     */
+    private Closing detach() {
+        if (guard.isClosed()) {
+            return null;
+        }
+        guard.close();
+        List<MycilaCloseableInjector> open;
+        synchronized (children) {
+            open = new ArrayList<MycilaCloseableInjector>(children);
+            children.clear();
+        }
+        List<InjectorCloseListener> ancestors = new ArrayList<InjectorCloseListener>();
+        for (MycilaCloseableInjector ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            ancestors.addAll(ancestor.listeners());
+        }
+        return new Closing(open, listeners(), ancestors);
+    }
+
+    /**
+     * @return the listeners of this injector, the last created first. Only the singletons which have been created.
+     */
+    private List<InjectorCloseListener> listeners() {
+        if (injector == null) {
+            // an ancestor released in the meantime
+            return Collections.emptyList();
+        }
+        List<Object> instances = new ArrayList<Object>(singletons.inCreationOrder(injector).values());
+        Set<Object> done = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>(instances.size()));
+        List<InjectorCloseListener> listeners = new ArrayList<InjectorCloseListener>();
+        for (int i = instances.size() - 1; i >= 0; i--) {
+            Object o = instances.get(i);
+            if (o instanceof InjectorCloseListener && done.add(o)) {
+                listeners.add((InjectorCloseListener) o);
+            }
+        }
+        return listeners;
+    }
+
+    private void release(long start) {
+        Injector closed = injector;
+        injector = null;
+        singletons.clear();
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+        metrics.injectorClosed(closed, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static final class Closing {
+        final List<MycilaCloseableInjector> children;
+        final List<InjectorCloseListener> listeners;
+        // listeners of the parent injectors, notified of the closing of this child
+        final List<InjectorCloseListener> ancestors;
+
+        Closing(List<MycilaCloseableInjector> children, List<InjectorCloseListener> listeners, List<InjectorCloseListener> ancestors) {
+            this.children = children;
+            this.listeners = listeners;
+            this.ancestors = ancestors;
+        }
+    }
+
+    private static final ThreadFactory DAEMON_THREADS = new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mycila-guice-close-" + count.incrementAndGet());
+            // a hung listener must not prevent the JVM from exiting
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
     private Injector injector() {
-        if (closed || injector == null) throw new IllegalStateException("Injector closed !");
-        return injector;
+        guard.check();
+        Injector current = injector;
+        // closed by another thread since the check
+        if (current == null) throw new IllegalStateException("Injector closed !");
+        return current;
     }
 
     @Override
@@ -114,12 +373,14 @@ final class MycilaCloseableInjector implements CloseableInjector {
 
     @Override
     public <T> Provider<T> getProvider(Key<T> key) {
-        return injector().getProvider(key);
+        Provider<T> provider = injector().getProvider(key);
+        return guard.guardProviders ? guard.guard(provider) : provider;
     }
 
     @Override
     public <T> Provider<T> getProvider(Class<T> type) {
-        return injector().getProvider(type);
+        Provider<T> provider = injector().getProvider(type);
+        return guard.guardProviders ? guard.guard(provider) : provider;
     }
 
     @Override
@@ -138,13 +399,18 @@ final class MycilaCloseableInjector implements CloseableInjector {
     }
 
     @Override
-    public Injector createChildInjector(Iterable<? extends Module> modules) {
-        return injector().createChildInjector(modules);
+    public CloseableInjector createChildInjector(Iterable<? extends Module> modules) {
+        ProvisionedSingletons childSingletons = singletons.child();
+        Injector child = injector().createChildInjector(Iterables.concat(modules, Collections.singleton(childSingletons.module())));
+        childSingletons.register(child);
+        MycilaCloseableInjector closeable = new MycilaCloseableInjector(child, childSingletons, new CloseGuard(guard.guardProviders), metrics, this);
+        children.add(closeable);
+        return closeable;
     }
 
     @Override
-    public Injector createChildInjector(Module... modules) {
-        return injector().createChildInjector(modules);
+    public CloseableInjector createChildInjector(Module... modules) {
+        return createChildInjector(Arrays.asList(modules));
     }
 
     @Override
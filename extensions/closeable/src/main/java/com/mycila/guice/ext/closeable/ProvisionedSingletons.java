@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.closeable;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Scopes;
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.spi.DefaultBindingScopingVisitor;
+import com.google.inject.spi.InstanceBinding;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.spi.ProvisionListener;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the singletons an injector has actually created, in creation order, so that closing it does not create the
+ * lazy singletons which were never used only to destroy them. Bound by {@link CloseableModule}.
+ * <p>
+ * Only the singleton and the unscoped bindings are listened to: Guice reports the provisioning of a linked singleton
+ * ({@code bind(A.class).to(AImpl.class).in(Singleton.class)}) on the unscoped binding of its target, and cannot tell
+ * which singleton, if any, a provisioning of the target is for. The first instances provisioned for a target, one per
+ * linked singleton of this target, are thus recorded as the instances of these singletons: they are other instances
+ * if the target was first injected unscoped elsewhere. Closing never creates nor provisions anything.
+ * <p>
+ * Each injector created by a {@link CloseableInjector}, including its children, has its own registry, which only
+ * records the bindings of its injector: the registry of a parent does not retain the singletons of its children.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+public final class ProvisionedSingletons implements ProvisionListener {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Key<?>, Provisioned> singletons = new ConcurrentHashMap<Key<?>, Provisioned>();
+    // the first provisioning of the targets of the linked singletons
+    private final Map<Key<?>, List<Provisioned>> targets = new ConcurrentHashMap<Key<?>, List<Provisioned>>();
+    private final Map<Key<?>, Boolean> foreign = new ConcurrentHashMap<Key<?>, Boolean>();
+    // the number of linked singletons of each target, known once the owner is injected
+    private volatile Map<Key<?>, Integer> links = Collections.emptyMap();
+
+    private final ProvisionedSingletons root;
+    // registries of the child injectors, only in the root. Both are weak so that an unused child can be collected
+    private final Map<Injector, WeakReference<ProvisionedSingletons>> children;
+    private volatile Injector owner;
+
+    ProvisionedSingletons() {
+        this.root = this;
+        this.children = Collections.synchronizedMap(new WeakHashMap<Injector, WeakReference<ProvisionedSingletons>>());
+    }
+
+    private ProvisionedSingletons(ProvisionedSingletons root) {
+        this.root = root;
+        this.children = null;
+    }
+
+    @Inject
+    void setOwner(Injector owner) {
+        // injected once the injector is created and before any provisioning
+        this.links = linksOf(owner);
+        this.owner = owner;
+    }
+
+    private static Map<Key<?>, Integer> linksOf(Injector injector) {
+        Map<Key<?>, Integer> links = new HashMap<Key<?>, Integer>();
+        for (Binding<?> binding : injector.getAllBindings().values()) {
+            if (binding instanceof LinkedKeyBinding<?> && Scopes.isSingleton(binding)) {
+                Key<?> target = target(injector, binding).getKey();
+                Integer count = links.get(target);
+                links.put(target, count == null ? 1 : count + 1);
+            }
+        }
+        return links.isEmpty() ? Collections.<Key<?>, Integer>emptyMap() : links;
+    }
+
+    private static Binding<?> target(Injector injector, Binding<?> binding) {
+        Binding<?> target = binding;
+        while (target instanceof LinkedKeyBinding<?>)
+            target = injector.getBinding(((LinkedKeyBinding<?>) target).getLinkedKey());
+        return target;
+    }
+
+    /**
+     * @return a registry for a child injector, to be installed in it with {@link #module()}
+     */
+    ProvisionedSingletons child() {
+        return new ProvisionedSingletons(root);
+    }
+
+    Module module() {
+        return new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindListener(new SingletonBindings(), ProvisionedSingletons.this);
+                requestInjection(ProvisionedSingletons.this);
+            }
+        };
+    }
+
+    void register(Injector child) {
+        root.children.put(child, new WeakReference<ProvisionedSingletons>(this));
+    }
+
+    @Override
+    public <T> void onProvision(ProvisionInvocation<T> provision) {
+        T instance = provision.provision();
+        Binding<T> binding = provision.getBinding();
+        Key<T> key = binding.getKey();
+        boolean singleton = Scopes.isSingleton(binding);
+        Integer count = singleton ? null : links.get(key);
+        if (!singleton && count == null) {
+            // unscoped, and not the target of a linked singleton
+            return;
+        }
+        if (!owns(key)) {
+            // listeners are inherited: this is a binding of a child injector
+            return;
+        }
+        // recorded once provisioned: dependencies come before their dependants
+        if (singleton) {
+            singletons.put(key, new Provisioned(binding, instance, sequence.incrementAndGet()));
+        } else {
+            List<Provisioned> recorded = targets.get(key);
+            if (recorded == null) {
+                targets.putIfAbsent(key, new ArrayList<Provisioned>(count));
+                recorded = targets.get(key);
+            }
+            synchronized (recorded) {
+                if (recorded.size() < count) {
+                    recorded.add(new Provisioned(binding, instance, sequence.incrementAndGet()));
+                }
+            }
+        }
+    }
+
+    private boolean owns(Key<?> key) {
+        Injector owner = this.owner;
+        if (owner == null || singletons.containsKey(key) || targets.containsKey(key)) {
+            return true;
+        }
+        if (foreign.containsKey(key)) {
+            return false;
+        }
+        if (owner.getExistingBinding(key) == null) {
+            foreign.put(key, Boolean.TRUE);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the singletons of this injector which have been created, by binding, in creation order. Instance
+     * bindings come first since their instance exists before the injector. The same instance can be returned for
+     * several bindings. The injector can also be a child of the injector of this registry, created by a
+     * {@link CloseableInjector}.
+     */
+    public Map<Binding<?>, Object> inCreationOrder(Injector injector) {
+        return registryOf(injector).created(injector);
+    }
+
+    private ProvisionedSingletons registryOf(Injector injector) {
+        if (injector != owner) {
+            WeakReference<ProvisionedSingletons> child = root.children.get(injector);
+            ProvisionedSingletons registry = child == null ? null : child.get();
+            if (registry != null) {
+                return registry;
+            }
+        }
+        return this;
+    }
+
+    private Map<Binding<?>, Object> created(Injector injector) {
+        List<Provisioned> created = new ArrayList<Provisioned>();
+        // the recorded instances of each target handed to its linked singletons so far
+        Map<Key<?>, Integer> handed = new HashMap<Key<?>, Integer>();
+        for (Binding<?> binding : injector.getAllBindings().values()) {
+            if (binding instanceof InstanceBinding<?>) {
+                created.add(new Provisioned(binding, ((InstanceBinding<?>) binding).getInstance(), 0));
+            } else if (Scopes.isSingleton(binding)) {
+                Provisioned provisioned = singletons.get(binding.getKey());
+                if (provisioned != null) {
+                    created.add(new Provisioned(binding, provisioned.instance, provisioned.sequence));
+                } else if (binding instanceof LinkedKeyBinding<?>) {
+                    Key<?> target = target(injector, binding).getKey();
+                    // a singleton target is the instance of the linked singleton
+                    provisioned = singletons.get(target);
+                    if (provisioned == null) {
+                        provisioned = nextTarget(target, handed);
+                    }
+                    if (provisioned != null) {
+                        created.add(new Provisioned(binding, provisioned.instance, provisioned.sequence));
+                    }
+                }
+            }
+        }
+        Collections.sort(created, new Comparator<Provisioned>() {
+            @Override
+            public int compare(Provisioned o1, Provisioned o2) {
+                return Long.compare(o1.sequence, o2.sequence);
+            }
+        });
+        Map<Binding<?>, Object> instances = new LinkedHashMap<Binding<?>, Object>(created.size() * 4 / 3 + 1);
+        for (Provisioned provisioned : created)
+            if (provisioned.instance != null)
+                instances.put(provisioned.binding, provisioned.instance);
+        return instances;
+    }
+
+    private Provisioned nextTarget(Key<?> target, Map<Key<?>, Integer> handed) {
+        List<Provisioned> recorded = targets.get(target);
+        if (recorded == null) {
+            return null;
+        }
+        Integer previous = handed.get(target);
+        int next = previous == null ? 0 : previous + 1;
+        handed.put(target, next);
+        synchronized (recorded) {
+            return next < recorded.size() ? recorded.get(next) : null;
+        }
+    }
+
+    void clear() {
+        singletons.clear();
+        targets.clear();
+        foreign.clear();
+        links = Collections.emptyMap();
+        if (root != this) {
+            root.children.remove(owner);
+        }
+        // a closed CloseableInjector must not keep its injector reachable
+        owner = null;
+    }
+
+    /**
+     * Matches the singleton and the unscoped bindings: the targets of the linked singletons are only known once the
+     * injector is created, after the matching.
+     */
+    private static final class SingletonBindings extends AbstractMatcher<Binding<?>> {
+        @Override
+        public boolean matches(Binding<?> binding) {
+            return Scopes.isSingleton(binding) || binding.acceptScopingVisitor(UNSCOPED);
+        }
+    }
+
+    private static final DefaultBindingScopingVisitor<Boolean> UNSCOPED = new DefaultBindingScopingVisitor<Boolean>() {
+        @Override
+        protected Boolean visitOther() {
+            return Boolean.FALSE;
+        }
+
+        @Override
+        public Boolean visitNoScoping() {
+            return Boolean.TRUE;
+        }
+    };
+
+    private static final class Provisioned {
+        final Binding<?> binding;
+        final Object instance;
+        final long sequence;
+
+        Provisioned(Binding<?> binding, Object instance, long sequence) {
+            this.binding = binding;
+            this.instance = instance;
+            this.sequence = sequence;
+        }
+    }
+
+}
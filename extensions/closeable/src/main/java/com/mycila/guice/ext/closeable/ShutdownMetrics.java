@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.closeable;
+
+import com.google.inject.Injector;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Receives the time taken to close a {@link CloseableInjector}: by each {@link InjectorCloseListener}, by each
+ * {@code @PreDestroy} method when the JSR-250 extension is used, and by the whole injector. Bind an implementation
+ * with {@link CloseableModule#withShutdownMetrics(ShutdownMetrics)}.
+ * <p>
+ * Implementations must be thread-safe: listeners and children injectors can be closed concurrently.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+public interface ShutdownMetrics {
+
+    /**
+     * @param injector the injector being closed
+     * @param listener the listener which has been notified, successfully or not
+     * @param duration the time taken by the listener
+     */
+    void listenerNotified(Injector injector, InjectorCloseListener listener, Duration duration);
+
+    /**
+     * @param injector the injector being closed
+     * @param instance the instance whose {@code @PreDestroy} methods have been called
+     * @param duration the time taken by its {@code @PreDestroy} methods
+     */
+    void preDestroyed(Injector injector, Object instance, Duration duration);
+
+    /**
+     * @param injector the injector closed
+     * @param duration the time taken to close it, including its children
+     */
+    void injectorClosed(Injector injector, Duration duration);
+
+    /**
+     * @return metrics reporting to all the given ones
+     */
+    static ShutdownMetrics of(List<? extends ShutdownMetrics> metrics) {
+        final List<ShutdownMetrics> all = new ArrayList<ShutdownMetrics>(metrics);
+        if (all.size() == 1) {
+            return all.get(0);
+        }
+        return new ShutdownMetrics() {
+            @Override
+            public void listenerNotified(Injector injector, InjectorCloseListener listener, Duration duration) {
+                for (ShutdownMetrics metrics : all) {
+                    metrics.listenerNotified(injector, listener, duration);
+                }
+            }
+
+            @Override
+            public void preDestroyed(Injector injector, Object instance, Duration duration) {
+                for (ShutdownMetrics metrics : all) {
+                    metrics.preDestroyed(injector, instance, duration);
+                }
+            }
+
+            @Override
+            public void injectorClosed(Injector injector, Duration duration) {
+                for (ShutdownMetrics metrics : all) {
+                    metrics.injectorClosed(injector, duration);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.closeable;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link JmxShutdownMetrics}.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+public interface ShutdownMetricsMXBean {
+
+    /**
+     * @return the number of injectors closed, children included
+     */
+    long getClosedInjectors();
+
+    /**
+     * @return the time taken to close the last closed injector, in milliseconds
+     */
+    long getLastCloseMillis();
+
+    /**
+     * @return the longest time taken to close an injector, in milliseconds
+     */
+    long getMaxCloseMillis();
+
+    /**
+     * @return by listener class, the longest time taken by a listener of this class, in milliseconds
+     */
+    Map<String, Long> getListenerMaxMillis();
+
+    /**
+     * @return by class, the longest time taken by the {@code @PreDestroy} methods of an instance of this class, in milliseconds
+     */
+    Map<String, Long> getPreDestroyMaxMillis();
+
+    /**
+     * Forgets all the timings recorded so far.
+     */
+    void reset();
+}
@@ -17,13 +17,37 @@ package com.mycila.guice.ext.closeable;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.Stage;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.name.Names;
+import com.google.inject.spi.ProvisionListener;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
@@ -45,6 +69,327 @@ public final class CloseableTestTest {
         Assert.assertEquals(1, MustClose.hits);
     }
 
+    @Test
+    public void test_only_created_singletons_closed_last_created_first() throws Exception {
+        Closing.closed.clear();
+        CloseableInjector injector = Guice.createInjector(Stage.DEVELOPMENT, new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Unused.class).in(Singleton.class);
+                bind(Closing.class).to(Dependant.class).in(Singleton.class);
+            }
+        }).getInstance(CloseableInjector.class);
+        injector.getInstance(Closing.class);
+        injector.close();
+        Assert.assertEquals(0, Unused.created);
+        Assert.assertEquals(Arrays.asList("dependant", "dependency"), Closing.closed);
+    }
+
+    @Test
+    public void test_close_does_not_provision_a_linked_singleton_whose_target_was_only_injected_unscoped() throws Exception {
+        Counted.created = 0;
+        final AtomicInteger provisioned = new AtomicInteger();
+        CloseableInjector injector = Guice.createInjector(Stage.DEVELOPMENT, new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Closing.class).to(Counted.class).in(Singleton.class);
+                bindListener(Matchers.any(), new ProvisionListener() {
+                    @Override
+                    public <T> void onProvision(ProvisionInvocation<T> provision) {
+                        if (provision.getBinding().getKey().getTypeLiteral().getRawType() == Counted.class) {
+                            provisioned.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }, new CloseableModule()).getInstance(CloseableInjector.class);
+        injector.getInstance(Counted.class);
+        injector.close();
+        Assert.assertEquals(1, Counted.created);
+        // the listeners bound before the CloseableModule do not see a provisioning started at close
+        Assert.assertEquals(1, provisioned.get());
+    }
+
+    @Test
+    public void test_closeAsync_notifies_concurrently_then_sequentially() throws Exception {
+        Slow.running = new CountDownLatch(2);
+        Last.concurrentDone = 0;
+        CloseableInjector injector = Guice.createInjector(Stage.PRODUCTION, new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Key.get(Slow.class, Names.named("1"))).to(Slow.class).in(Singleton.class);
+                bind(Key.get(Slow.class, Names.named("2"))).to(Slow.class).in(Singleton.class);
+                bind(Last.class).in(Singleton.class);
+            }
+        }).getInstance(CloseableInjector.class);
+        Map<InjectorCloseListener, Duration> durations = injector.closeAsync().get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(3, durations.size());
+        Assert.assertEquals(2, Last.concurrentDone);
+        Assert.assertTrue(injector.closeAsync().get().isEmpty());
+    }
+
+    @Test
+    public void test_closeAsync_defaults_to_close() throws Exception {
+        final List<String> closed = Collections.synchronizedList(new ArrayList<String>());
+        CloseableInjector injector = (CloseableInjector) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{CloseableInjector.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.isDefault()) {
+                    return InvocationHandler.invokeDefault(proxy, method, args);
+                }
+                if (method.getName().equals("close")) {
+                    closed.add(Thread.currentThread().getName());
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        Assert.assertTrue(injector.closeAsync().get().isEmpty());
+        Assert.assertEquals(Arrays.asList(Thread.currentThread().getName()), closed);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Assert.assertTrue(injector.closeAsync(executor).get(10, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(2, closed.size());
+        Assert.assertNotEquals(Thread.currentThread().getName(), closed.get(1));
+    }
+
+    @Test
+    public void test_guarded_providers_fail_once_closed() throws Exception {
+        CloseableInjector injector = Guice.createInjector(new CloseableModule().withGuardedProviders()).getInstance(CloseableInjector.class);
+        Provider<Object> provider = injector.getProvider(Object.class);
+        Assert.assertNotNull(provider.get());
+        injector.close();
+        try {
+            provider.get();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Injector closed !", e.getMessage());
+        }
+        try {
+            injector.getInstance(Object.class);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Injector closed !", e.getMessage());
+        }
+    }
+
+    @Test
+    public void test_closing_a_child_only_releases_its_singletons() throws Exception {
+        Tracking.events.clear();
+        CloseableInjector parent = Guice.createInjector(new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Tracking.class).in(Singleton.class);
+            }
+        }).getInstance(CloseableInjector.class);
+        parent.getInstance(Tracking.class);
+        CloseableInjector child = parent.createChildInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Tenant.class).in(Singleton.class);
+            }
+        });
+        child.getInstance(Tenant.class);
+        for (Object instance : parent.getInstance(ProvisionedSingletons.class).inCreationOrder(parent).values()) {
+            Assert.assertFalse(instance instanceof Tenant);
+        }
+        child.close();
+        Assert.assertEquals(Arrays.asList("tenant", "child closing"), Tracking.events);
+        Assert.assertTrue(isClosed(child));
+        Assert.assertFalse(isClosed(parent));
+        parent.close();
+        Assert.assertEquals(Arrays.asList("tenant", "child closing", "parent"), Tracking.events);
+    }
+
+    @Test
+    public void test_closed_child_releases_its_injector() throws Exception {
+        CloseableInjector parent = Guice.createInjector(new CloseableModule()).getInstance(CloseableInjector.class);
+        CloseableInjector child = parent.createChildInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Tenant.class).in(Singleton.class);
+            }
+        });
+        WeakReference<Tenant> tenant = new WeakReference<Tenant>(child.getInstance(Tenant.class));
+        child.close();
+        for (int i = 0; i < 50 && tenant.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(tenant.get());
+        Assert.assertTrue(isClosed(child));
+        parent.close();
+    }
+
+    @Test
+    public void test_closing_the_parent_cascades_to_children() throws Exception {
+        Tracking.events.clear();
+        CloseableInjector parent = Guice.createInjector(new CloseableModule()).getInstance(CloseableInjector.class);
+        List<CloseableInjector> children = new ArrayList<CloseableInjector>();
+        for (int i = 0; i < 3; i++) {
+            CloseableInjector child = parent.createChildInjector(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Tenant.class).in(Singleton.class);
+                }
+            });
+            child.getInstance(Tenant.class);
+            children.add(child);
+        }
+        children.get(0).close();
+        parent.close();
+        Assert.assertEquals(Arrays.asList("tenant", "tenant", "tenant"), Tracking.events);
+        for (CloseableInjector child : children) {
+            Assert.assertTrue(isClosed(child));
+        }
+    }
+
+    @Test
+    public void test_shutdown_metrics() throws Exception {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        JmxShutdownMetrics jmx = new JmxShutdownMetrics();
+        ObjectName name = new ObjectName("com.mycila.guice:type=ShutdownMetrics,name=test");
+        jmx.register(ManagementFactory.getPlatformMBeanServer(), name);
+        try {
+            CloseableInjector injector = Guice.createInjector(new CloseableModule().withShutdownMetrics(new ShutdownMetrics() {
+                @Override
+                public void listenerNotified(Injector injector, InjectorCloseListener listener, Duration duration) {
+                    events.add("listener " + listener.getClass().getSimpleName());
+                }
+
+                @Override
+                public void preDestroyed(Injector injector, Object instance, Duration duration) {
+                    events.add("predestroy");
+                }
+
+                @Override
+                public void injectorClosed(Injector injector, Duration duration) {
+                    events.add("closed");
+                }
+            }).withShutdownMetrics(jmx), new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(MustClose.class).in(Singleton.class);
+                }
+            }).getInstance(CloseableInjector.class);
+            injector.getInstance(MustClose.class);
+            injector.close();
+            Assert.assertEquals(Arrays.asList("listener MustClose", "closed"), events);
+            Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ClosedInjectors"));
+            Assert.assertEquals(Collections.singleton(MustClose.class.getName()), jmx.getListenerMaxMillis().keySet());
+        } finally {
+            jmx.unregister();
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    private static boolean isClosed(CloseableInjector injector) {
+        try {
+            injector.getInstance(Object.class);
+            return false;
+        } catch (IllegalStateException e) {
+            return true;
+        }
+    }
+
+    static class Tracking implements InjectorCloseListener {
+        static final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void onInjectorClosing() {
+            events.add("parent");
+        }
+
+        @Override
+        public void onChildInjectorClosing(Injector child) {
+            events.add("child closing");
+        }
+    }
+
+    static class Tenant implements InjectorCloseListener {
+        @Override
+        public void onInjectorClosing() {
+            Tracking.events.add("tenant");
+        }
+    }
+
+    static class Slow implements InjectorCloseListener {
+        static CountDownLatch running;
+
+        @Override
+        public void onInjectorClosing() {
+            running.countDown();
+            try {
+                // only completes if the other one runs at the same time
+                Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Sequential
+    static class Last implements InjectorCloseListener {
+        static int concurrentDone;
+
+        @Override
+        public void onInjectorClosing() {
+            concurrentDone = 2 - (int) Slow.running.getCount();
+        }
+    }
+
+    static class Unused implements InjectorCloseListener {
+        static int created;
+
+        Unused() {
+            created++;
+        }
+
+        @Override
+        public void onInjectorClosing() {
+        }
+    }
+
+    static class Closing implements InjectorCloseListener {
+        static final List<String> closed = new ArrayList<String>();
+
+        @Override
+        public void onInjectorClosing() {
+            closed.add("dependency");
+        }
+    }
+
+    @Singleton
+    static class Dependency extends Closing {
+    }
+
+    static class Dependant extends Closing {
+        @Inject
+        Dependency dependency;
+
+        @Override
+        public void onInjectorClosing() {
+            closed.add("dependant");
+        }
+    }
+
+    static class Counted extends Closing {
+        static int created;
+        static int closed;
+
+        Counted() {
+            created++;
+        }
+
+        @Override
+        public void onInjectorClosing() {
+            closed++;
+        }
+    }
+
     static class MustClose implements InjectorCloseListener {
         static int hits;
 
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor writing the annotation index read by {@code com.mycila.guice.ext.injection.Reflect}.
+ * <p>
+ * The index lists every class compiled with this processor on the annotation processor path, together with the
+ * annotations found on its declared fields and methods. At runtime, a class listed without a given annotation, and whose
+ * superclasses are also listed without it, does not need to be scanned for this annotation. Classes which are not
+ * listed (other libraries, generated proxies, anonymous or local classes) are still scanned by reflection.
+ * <p>
+ * The file is a UTF-8 text file with one line per class: {@code binary.ClassName=annotation.Type1,annotation.Type2}.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+@SupportedAnnotationTypes("*")
+public class AnnotationIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX = "META-INF/mycila-guice/annotations.index";
+
+    private final Map<String, Set<String>> index = new TreeMap<String, Set<String>>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+            add(type);
+        if (roundEnv.processingOver() && !index.isEmpty())
+            write();
+        // never claim the annotations: other processors must still see them
+        return false;
+    }
+
+    private void add(TypeElement type) {
+        Set<String> annotationTypes = new TreeSet<String>();
+        for (Element member : type.getEnclosedElements()) {
+            switch (member.getKind()) {
+                case FIELD:
+                case ENUM_CONSTANT:
+                case METHOD:
+                case RECORD_COMPONENT:
+                    // record component annotations are propagated to the generated fields and accessors
+                    for (AnnotationMirror mirror : member.getAnnotationMirrors())
+                        annotationTypes.add(processingEnv.getElementUtils().getBinaryName((TypeElement) mirror.getAnnotationType().asElement()).toString());
+                    break;
+                default:
+                    if (member instanceof TypeElement)
+                        add((TypeElement) member);
+            }
+        }
+        index.put(processingEnv.getElementUtils().getBinaryName(type).toString(), annotationTypes);
+    }
+
+    private void write() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+            Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8);
+            try {
+                for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('=');
+                    writer.write(String.join(",", entry.getValue()));
+                    writer.write('\n');
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Unable to write " + INDEX + ": " + e.getMessage());
+        }
+    }
+
+}
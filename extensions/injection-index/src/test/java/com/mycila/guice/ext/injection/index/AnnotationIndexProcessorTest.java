@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection.index;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class AnnotationIndexProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void test_index() throws Exception {
+        File out = folder.newFolder();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+            Arrays.asList("-d", out.getPath(), "-proc:only"), null,
+            Collections.singletonList(source("test.Bean",
+                "package test;\n" +
+                    "public class Bean {\n" +
+                    "    @Deprecated String field;\n" +
+                    "    @SuppressWarnings(\"x\") @Deprecated void method() {}\n" +
+                    "    static class Nested { int plain; }\n" +
+                    "    record Value(@Deprecated int a) {}\n" +
+                    "}\n")));
+        task.setProcessors(Collections.singletonList(new AnnotationIndexProcessor()));
+        assertTrue(task.call());
+
+        List<String> lines = Files.readAllLines(new File(out, AnnotationIndexProcessor.INDEX).toPath(), StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList(
+            "test.Bean=java.lang.Deprecated,java.lang.SuppressWarnings",
+            "test.Bean$Nested=",
+            "test.Bean$Value=java.lang.Deprecated"), lines);
+    }
+
+    private static JavaFileObject source(String className, final String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import com.google.common.base.Predicate;
+import com.google.inject.MembersInjector;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.InjectionListener;
+import com.google.inject.spi.TypeEncounter;
+import com.google.inject.spi.TypeListener;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Fuses several {@link MemberTypeListener}s in a single {@link TypeListener}: the members of each encountered type are
+ * scanned once for all the annotations, and at most one {@link MembersInjector} and one {@link InjectionListener} are
+ * registered per type, running the handlers in the order they were added.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+final class AnnotatedMemberTypeListener implements TypeListener {
+
+    private final List<MemberTypeListener> listeners = new ArrayList<MemberTypeListener>();
+    private final Set<Class<? extends Annotation>> annotationTypes = new LinkedHashSet<Class<? extends Annotation>>();
+
+    void add(MemberTypeListener listener) {
+        listeners.add(listener);
+        annotationTypes.add(listener.getAnnotationType());
+    }
+
+    @Override
+    public <I> void hear(TypeLiteral<I> type, TypeEncounter<I> encounter) {
+        if (AnnotationIndex.excludes(type.getRawType(), annotationTypes)) {
+            return;
+        }
+        Predicate<AnnotatedElement> annotated = Reflect.annotatedByAny(annotationTypes);
+        List<Field> fields = newArrayList(filter(Reflect.findAllFields(type.getRawType()), annotated));
+        List<Method> methods = newArrayList(filter(Reflect.findAllMethods(type.getRawType()), annotated));
+        if (fields.isEmpty() && methods.isEmpty()) {
+            return;
+        }
+        List<MembersInjector<I>> injectors = new ArrayList<MembersInjector<I>>(listeners.size());
+        List<InjectionListener<I>> injectionListeners = new ArrayList<InjectionListener<I>>(listeners.size());
+        for (MemberTypeListener listener : listeners) {
+            MembersInjector<I> injector = listener.membersInjector(type, encounter, fields, methods);
+            if (injector != null) {
+                injectors.add(injector);
+            }
+            InjectionListener<I> injectionListener = listener.injectionListener(type, encounter, fields, methods);
+            if (injectionListener != null) {
+                injectionListeners.add(injectionListener);
+            }
+        }
+        if (injectors.size() == 1) {
+            encounter.register(injectors.get(0));
+        } else if (injectors.size() > 1) {
+            encounter.register(compose(injectors));
+        }
+        if (injectionListeners.size() == 1) {
+            encounter.register(injectionListeners.get(0));
+        } else if (injectionListeners.size() > 1) {
+            encounter.register(composeListeners(injectionListeners));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I> MembersInjector<I> compose(List<MembersInjector<I>> list) {
+        final MembersInjector<I>[] injectors = list.toArray(new MembersInjector[list.size()]);
+        return new MembersInjector<I>() {
+            @Override
+            public void injectMembers(I instance) {
+                for (MembersInjector<I> injector : injectors)
+                    injector.injectMembers(instance);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I> InjectionListener<I> composeListeners(List<InjectionListener<I>> list) {
+        final InjectionListener<I>[] listeners = list.toArray(new InjectionListener[list.size()]);
+        return new InjectionListener<I>() {
+            @Override
+            public void afterInjection(I injectee) {
+                for (InjectionListener<I> listener : listeners)
+                    listener.afterInjection(injectee);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import com.google.inject.MembersInjector;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.InjectionListener;
+import com.google.inject.spi.TypeEncounter;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Hands the annotated methods of each type to an {@link AnnotatedMethodListener}, without injecting nor listening to
+ * the instances.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+final class AnnotatedMethodTypeListener<A extends Annotation> implements MemberTypeListener {
+    private final Class<A> annotationType;
+    private final AnnotatedMethodListener<A> listener;
+
+    AnnotatedMethodTypeListener(Class<A> annotationType, AnnotatedMethodListener<A> listener) {
+        this.annotationType = annotationType;
+        this.listener = listener;
+    }
+
+    @Override
+    public Class<A> getAnnotationType() {
+        return annotationType;
+    }
+
+    @Override
+    public <I> void hear(TypeLiteral<I> type, TypeEncounter<I> encounter) {
+        membersInjector(type, encounter, Collections.<Field>emptyList(), Reflect.findAllAnnotatedMethods(type.getRawType(), annotationType));
+    }
+
+    @Override
+    public <I> MembersInjector<I> membersInjector(TypeLiteral<I> type, TypeEncounter<I> encounter, Iterable<Field> fields, Iterable<Method> candidates) {
+        List<Method> methods = newArrayList(filter(candidates, Reflect.<Method>annotatedBy(annotationType)));
+        if (!methods.isEmpty()) {
+            listener.hear(type, methods);
+        }
+        return null;
+    }
+
+    @Override
+    public <I> InjectionListener<I> injectionListener(TypeLiteral<I> type, TypeEncounter<I> encounter, Iterable<Field> fields, Iterable<Method> methods) {
+        return null;
+    }
+}
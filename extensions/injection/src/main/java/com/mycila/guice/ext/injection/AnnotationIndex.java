@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the annotation indexes written at build time by the {@code mycila-guice-injection-index} annotation processor.
+ * <p>
+ * Each index lists compiled classes with the annotations found on their declared fields and methods. A class can be
+ * skipped when it and all its superclasses are listed without the requested annotations. Interfaces, classes from the
+ * bootstrap class loader and classes missing from the indexes are always scanned by reflection.
+ * <p>
+ * Indexes can be ignored by setting the system property {@code mycila.guice.index.disabled} to {@code true}.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+final class AnnotationIndex {
+
+    static final String INDEX = "META-INF/mycila-guice/annotations.index";
+
+    private static final Logger LOGGER = Logger.getLogger(AnnotationIndex.class.getName());
+    private static final boolean DISABLED = Boolean.getBoolean("mycila.guice.index.disabled");
+
+    private static final LoadingCache<ClassLoader, Map<String, Set<String>>> INDEXES = CacheBuilder.newBuilder()
+        .weakKeys()
+        .build(new CacheLoader<ClassLoader, Map<String, Set<String>>>() {
+            @Override
+            public Map<String, Set<String>> load(ClassLoader classLoader) throws Exception {
+                return read(classLoader);
+            }
+        });
+
+    private AnnotationIndex() {
+    }
+
+    /**
+     * @return true if the indexes prove that no field or method of this class hierarchy carries one of these annotations
+     */
+    static boolean excludes(Class<?> type, Collection<Class<? extends Annotation>> annotationTypes) {
+        if (DISABLED || type.isInterface()) {
+            return false;
+        }
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            ClassLoader classLoader = c.getClassLoader();
+            if (classLoader == null) {
+                return false;
+            }
+            Set<String> present = INDEXES.getUnchecked(classLoader).get(c.getName());
+            if (present == null) {
+                return false;
+            }
+            if (!present.isEmpty()) {
+                for (Class<? extends Annotation> annotationType : annotationTypes)
+                    if (present.contains(annotationType.getName()))
+                        return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Set<String>> read(ClassLoader classLoader) {
+        Map<String, Set<String>> index = new HashMap<String, Set<String>>();
+        // annotation names are repeated on many lines: share a single instance of each
+        Map<String, String> names = new HashMap<String, String>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8));
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (line.isEmpty() || line.startsWith("#")) {
+                            continue;
+                        }
+                        int pos = line.indexOf('=');
+                        String className = pos == -1 ? line : line.substring(0, pos);
+                        Set<String> annotations = index.get(className);
+                        if (annotations == null) {
+                            index.put(className, annotations = new HashSet<String>(2));
+                        }
+                        // the same class can be listed by several indexes: keep all the annotations found
+                        if (pos != -1) {
+                            for (String annotation : line.substring(pos + 1).split(",")) {
+                                if (!annotation.isEmpty()) {
+                                    String name = names.get(annotation);
+                                    if (name == null) {
+                                        names.put(annotation, name = annotation);
+                                    }
+                                    annotations.add(name);
+                                }
+                            }
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+        } catch (IOException e) {
+            // without a complete index, every class of this loader is scanned by reflection
+            LOGGER.log(Level.WARNING, "Unable to read " + INDEX + ": " + e.getMessage(), e);
+            return new HashMap<String, Set<String>>();
+        }
+        return index;
+    }
+
+}
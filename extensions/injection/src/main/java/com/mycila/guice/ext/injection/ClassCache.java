@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import com.google.common.collect.MapMaker;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+/**
+ * A cache of values computed once per class. The values of the classes of the class loader of this library, or of its
+ * descendants, are stored in the class itself through a {@link ClassValue}, without locking. The values of the other
+ * classes, i.e. {@code Object}, the JDK classes or the classes of a parent class loader, are kept in a map with weak
+ * keys owned by the cache: storing them in these classes would make them hold the class loader of this library, and
+ * prevent it from being unloaded when an application is redeployed (JDK-8136353). The values of the classes of a
+ * class loader which is neither an ancestor nor a descendant of the one of this library, e.g. a plugin class loader,
+ * reference their class: they are always held by a soft or weak reference, so that they do not pin their class loader.
+ * <p>
+ * How long values are kept is set by the system property {@code mycila.guice.reflect.retention}:
+ * <ul>
+ * <li>{@code strong} (default): as long as the class, or until the garbage collector needs memory for the classes of
+ * an unrelated class loader</li>
+ * <li>{@code soft}: until the garbage collector needs memory</li>
+ * <li>{@code weak}: until the value is not used anymore</li>
+ * </ul>
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+abstract class ClassCache<V> {
+
+    enum Retention {STRONG, SOFT, WEAK}
+
+    static final Retention RETENTION = retention(System.getProperty("mycila.guice.reflect.retention", "strong"));
+
+    private static final ClassLoader LIBRARY = ClassCache.class.getClassLoader();
+
+    // stored in the classes of other class loaders instead of their value: a JDK object, holding no class loader
+    private static final Object FOREIGN = new Object();
+
+    private final Retention retention;
+    private final ClassValue<Object> values = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            return isLocal(type) ? holder(type) : FOREIGN;
+        }
+    };
+    private final ConcurrentMap<Class<?>, Object> foreign = new MapMaker().weakKeys().makeMap();
+
+    ClassCache() {
+        this(RETENTION);
+    }
+
+    ClassCache(Retention retention) {
+        this.retention = retention;
+    }
+
+    protected abstract V compute(Class<?> type);
+
+    @SuppressWarnings("unchecked")
+    final V get(Class<?> type) {
+        Object holder = values.get(type);
+        if (holder == FOREIGN) {
+            holder = foreign.get(type);
+            if (holder == null) {
+                Object computed = outlivesLibrary(type) ? holder(type) : new Slot<V>(retention != Retention.WEAK);
+                holder = foreign.putIfAbsent(type, computed);
+                if (holder == null) {
+                    holder = computed;
+                }
+            }
+            if (!(holder instanceof Slot<?>)) {
+                return (V) holder;
+            }
+        } else if (retention == Retention.STRONG) {
+            return (V) holder;
+        }
+        Slot<V> slot = (Slot<V>) holder;
+        Reference<V> ref = slot.ref;
+        V value = ref == null ? null : ref.get();
+        if (value == null) {
+            // concurrent callers may compute the same value: the last one wins, like for a ClassValue
+            value = compute(type);
+            slot.ref = slot.soft ? new SoftReference<V>(value) : new WeakReference<V>(value);
+        }
+        return value;
+    }
+
+    /**
+     * The value of a class, or the slot holding its reference.
+     */
+    private Object holder(Class<?> type) {
+        return retention == Retention.STRONG ? compute(type) : new Slot<V>(retention == Retention.SOFT);
+    }
+
+    /**
+     * Whether a class is loaded by the class loader of this library or by one of its descendants.
+     */
+    static boolean isLocal(Class<?> type) {
+        if (LIBRARY == null) {
+            // the bootstrap class loader is never unloaded
+            return true;
+        }
+        for (ClassLoader loader = type.getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader == LIBRARY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a class is loaded by the bootstrap class loader or by an ancestor of the class loader of this library,
+     * which cannot be unloaded before it.
+     */
+    static boolean outlivesLibrary(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null) {
+            return true;
+        }
+        for (ClassLoader ancestor = LIBRARY; ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor == loader) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Slot<V> {
+        final boolean soft;
+        volatile Reference<V> ref;
+
+        Slot(boolean soft) {
+            this.soft = soft;
+        }
+    }
+
+    private static Retention retention(String value) {
+        try {
+            return Retention.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            Logger.getLogger(ClassCache.class.getName()).warning("Invalid value for mycila.guice.reflect.retention: " + value + " (expected strong, soft or weak): using strong");
+            return Retention.STRONG;
+        }
+    }
+
+}
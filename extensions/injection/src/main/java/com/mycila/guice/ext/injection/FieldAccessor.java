@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Sets a {@link Field} through a setter {@link MethodHandle} compiled once per field, so that
+ * injecting a value is a plain store instead of an access check and a reflective
+ * {@link Field#set(Object, Object)} per instance.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+public class FieldAccessor {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final LoadingCache<Field, FieldAccessor> ACCESSORS = CacheBuilder.newBuilder()
+        .weakKeys()
+        .build(new CacheLoader<Field, FieldAccessor>() {
+            @Override
+            public FieldAccessor load(Field field) throws Exception {
+                field.setAccessible(true);
+                return new FieldAccessor(field);
+            }
+        });
+
+    public final Field field;
+
+    private final MethodHandle setter;
+
+    private FieldAccessor(Field field) throws IllegalAccessException {
+        this.field = field;
+        // unreflectSetter() honors the accessible flag, also for non-static final fields
+        MethodHandle mh = MethodHandles.lookup().unreflectSetter(field);
+        if (Modifier.isStatic(field.getModifiers())) {
+            // static fields ignore the target, like Field.set() does
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        }
+        this.setter = mh.asType(SETTER_TYPE);
+    }
+
+    public void set(Object target, Object value) {
+        try {
+            setter.invokeExact(target, value);
+        } catch (Throwable e) {
+            throw MycilaGuiceException.toRuntime(e);
+        }
+    }
+
+    public static FieldAccessor on(Field field) {
+        try {
+            return ACCESSORS.get(field);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to access field " + field + ". Reason: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return field.toString();
+    }
+}
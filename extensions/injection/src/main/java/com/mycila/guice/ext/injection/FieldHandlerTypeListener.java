@@ -15,21 +15,25 @@
  */
 package com.mycila.guice.ext.injection;
 
-import com.google.common.collect.Lists;
+import com.google.inject.MembersInjector;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.google.inject.spi.InjectionListener;
 import com.google.inject.spi.TypeEncounter;
-import com.google.inject.spi.TypeListener;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.List;
 
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
+
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  */
-public class FieldHandlerTypeListener<A extends Annotation> implements TypeListener {
+public class FieldHandlerTypeListener<A extends Annotation> implements MemberTypeListener {
     private final Class<A> annotationType;
     private final Class<? extends FieldHandler<A>> handlerClass;
 
@@ -39,18 +43,37 @@ public class FieldHandlerTypeListener<A extends Annotation> implements TypeListe
     }
 
     @Override
-    public <I> void hear(final TypeLiteral<I> type, TypeEncounter<I> encounter) {
-        final Provider<? extends FieldHandler<A>> provider = encounter.getProvider(handlerClass);
-        final List<Field> fields = Lists.newLinkedList(Reflect.findAllAnnotatedFields(type.getRawType(), annotationType));
-        if (!fields.isEmpty()) {
-            encounter.register(new InjectionListener<I>() {
-                @Override
-                public void afterInjection(I injectee) {
-                    FieldHandler<A> handler = provider.get();
-                    for (Field field : fields)
-                        handler.handle(type, injectee, field, field.getAnnotation(annotationType));
-                }
-            });
+    public Class<A> getAnnotationType() {
+        return annotationType;
+    }
+
+    @Override
+    public <I> void hear(TypeLiteral<I> type, TypeEncounter<I> encounter) {
+        InjectionListener<I> listener = injectionListener(type, encounter, Reflect.findAllAnnotatedFields(type.getRawType(), annotationType), Collections.<Method>emptyList());
+        if (listener != null) {
+            encounter.register(listener);
         }
     }
+
+    @Override
+    public <I> MembersInjector<I> membersInjector(TypeLiteral<I> type, TypeEncounter<I> encounter, Iterable<Field> fields, Iterable<Method> methods) {
+        return null;
+    }
+
+    @Override
+    public <I> InjectionListener<I> injectionListener(final TypeLiteral<I> type, TypeEncounter<I> encounter, Iterable<Field> candidates, Iterable<Method> methods) {
+        final List<Field> fields = newArrayList(filter(candidates, Reflect.<Field>annotatedBy(annotationType)));
+        if (fields.isEmpty()) {
+            return null;
+        }
+        final Provider<? extends FieldHandler<A>> provider = encounter.getProvider(handlerClass);
+        return new InjectionListener<I>() {
+            @Override
+            public void afterInjection(I injectee) {
+                FieldHandler<A> handler = provider.get();
+                for (Field field : fields)
+                    handler.handle(type, injectee, field, field.getAnnotation(annotationType));
+            }
+        };
+    }
 }
@@ -48,23 +48,39 @@ import java.lang.reflect.Method;
 public class MBinder implements Binder {
 
     private final Binder binder;
+    private AnnotatedMemberTypeListener memberListener;
 
     private MBinder(Binder binder) {
         this.binder = binder;
     }
 
     public <A extends Annotation> MBinder bindAnnotationInjector(Class<A> annotationType, Class<? extends KeyProvider<A>> providerClass) {
-        binder.bindListener(Matchers.any(), willInject(new MemberInjectorTypeListener<A>(annotationType, providerClass)));
-        return this;
+        return bindMemberListener(new MemberInjectorTypeListener<A>(annotationType, providerClass));
     }
 
     public <A extends Annotation> MBinder handleMethodAfterInjection(Class<A> annotationType, Class<? extends MethodHandler<A>> providerClass) {
-        binder.bindListener(Matchers.any(), willInject(new MethodHandlerTypeListener<A>(annotationType, providerClass)));
-        return this;
+        return bindMemberListener(new MethodHandlerTypeListener<A>(annotationType, providerClass));
     }
 
     public <A extends Annotation> MBinder handleFieldAfterInjection(Class<A> annotationType, Class<? extends FieldHandler<A>> providerClass) {
-        binder.bindListener(Matchers.any(), willInject(new FieldHandlerTypeListener<A>(annotationType, providerClass)));
+        return bindMemberListener(new FieldHandlerTypeListener<A>(annotationType, providerClass));
+    }
+
+    /**
+     * Hands the methods annotated by the given annotation of the types encountered by the injector to the listener,
+     * from the member scan shared with the other listeners of this binder.
+     */
+    public <A extends Annotation> MBinder listenAnnotatedMethods(Class<A> annotationType, AnnotatedMethodListener<A> listener) {
+        return bindMemberListener(new AnnotatedMethodTypeListener<A>(annotationType, listener));
+    }
+
+    // all the member listeners registered through this binder share a single type listener scanning each type once
+    private MBinder bindMemberListener(MemberTypeListener listener) {
+        if (memberListener == null) {
+            memberListener = new AnnotatedMemberTypeListener();
+            binder.bindListener(Matchers.any(), memberListener);
+        }
+        memberListener.add(willInject(listener));
         return this;
     }
 
@@ -15,23 +15,24 @@
  */
 package com.mycila.guice.ext.injection;
 
-import com.google.common.collect.Lists;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.MembersInjector;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
+import com.google.inject.spi.InjectionListener;
 import com.google.inject.spi.TypeEncounter;
-import com.google.inject.spi.TypeListener;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  */
-public class MemberInjectorTypeListener<A extends Annotation> implements TypeListener {
+public class MemberInjectorTypeListener<A extends Annotation> implements MemberTypeListener {
 
     private final Class<A> annotationType;
     private final Class<? extends KeyProvider<A>> providerClass;
@@ -42,41 +43,109 @@ public class MemberInjectorTypeListener<A extends Annotation> implements TypeLis
     }
 
     @Override
-    public <I> void hear(final TypeLiteral<I> injectableType, TypeEncounter<I> encounter) {
+    public Class<A> getAnnotationType() {
+        return annotationType;
+    }
+
+    @Override
+    public <I> void hear(TypeLiteral<I> injectableType, TypeEncounter<I> encounter) {
+        MembersInjector<I> injector = membersInjector(injectableType, encounter, Reflect.findAllAnnotatedFields(injectableType.getRawType(), annotationType), Reflect.findAllAnnotatedMethods(injectableType.getRawType(), annotationType));
+        if (injector != null) {
+            encounter.register(injector);
+        }
+    }
+
+    @Override
+    public <I> MembersInjector<I> membersInjector(final TypeLiteral<I> injectableType, TypeEncounter<I> encounter, Iterable<Field> candidateFields, Iterable<Method> candidateMethods) {
+        final List<FieldAccessor> fields = new ArrayList<FieldAccessor>();
+        for (Field field : candidateFields)
+            if (Reflect.isAnnotationPresent(field, annotationType))
+                fields.add(FieldAccessor.on(field));
+        final List<MethodInvoker> methods = new ArrayList<MethodInvoker>();
+        for (Method method : candidateMethods)
+            if (Reflect.isAnnotationPresent(method, annotationType))
+                methods.add(MethodInvoker.on(method));
+        if (fields.isEmpty() && methods.isEmpty()) {
+            return null;
+        }
         final Provider<? extends KeyProvider<A>> provider = encounter.getProvider(providerClass);
         final Provider<Injector> injectorProvider = encounter.getProvider(Injector.class);
-        final List<Field> fields = Lists.newLinkedList(Reflect.findAllAnnotatedFields(injectableType.getRawType(), annotationType));
-        final List<MethodInvoker> methods = Lists.newLinkedList(Reflect.findAllAnnotatedInvokables(injectableType.getRawType(), annotationType));
-        if (!fields.isEmpty() || !methods.isEmpty()) {
-            encounter.register(new MembersInjector<I>() {
-                @Override
-                public void injectMembers(I injectee) {
-                    KeyProvider<A> keyProvider = provider.get();
-                    // inject fields
-                    for (Field field : fields) {
-                        Object value = injectorProvider.get().getProvider(keyProvider.getKey(injectableType, field, field.getAnnotation(annotationType))).get();
-                        if (!field.isAccessible())
-                            field.setAccessible(true);
-                        try {
-                            field.set(injectee, value);
-                        } catch (IllegalAccessException e) {
-                            throw new IllegalStateException("Failed to inject field " + field + ". Reason: " + e.getMessage(), e);
-                        }
-                    }
-                    // inject methods
-                    for (MethodInvoker invokable : methods) {
-                        List<Key<?>> parameterKeys = keyProvider.getParameterKeys(injectableType, invokable.method, invokable.getAnnotation(annotationType));
-                        Object[] parameters = new Object[parameterKeys.size()];
-                        for (int i = 0; i < parameters.length; i++)
-                            parameters[i] = injectorProvider.get().getProvider(parameterKeys.get(i)).get();
-                        try {
-                            invokable.invoke(injectee, parameters);
-                        } catch (Exception e) {
-                            throw MycilaGuiceException.toRuntime(e);
-                        }
-                    }
+        return new MembersInjector<I>() {
+            // keys never change once the injector is created: they are resolved on first injection
+            private volatile InjectionPlan plan;
+
+            @Override
+            public void injectMembers(I injectee) {
+                InjectionPlan p = plan;
+                if (p == null) {
+                    plan = p = new InjectionPlan(injectableType, fields, methods, provider.get(), injectorProvider.get());
+                }
+                p.inject(injectee);
+            }
+        };
+    }
+
+    @Override
+    public <I> InjectionListener<I> injectionListener(TypeLiteral<I> type, TypeEncounter<I> encounter, Iterable<Field> fields, Iterable<Method> methods) {
+        return null;
+    }
+
+    /**
+     * The members to inject for a type, with the {@link Provider}s of their values already resolved.
+     */
+    private final class InjectionPlan {
+        private final FieldAccessor[] fields;
+        private final Provider<?>[] fieldProviders;
+        private final MethodInvoker[] methods;
+        private final Provider<?>[][] parameterProviders;
+
+        InjectionPlan(TypeLiteral<?> injectableType, List<FieldAccessor> fields, List<MethodInvoker> methods, KeyProvider<A> keyProvider, Injector injector) {
+            this.fields = fields.toArray(new FieldAccessor[fields.size()]);
+            this.fieldProviders = new Provider<?>[this.fields.length];
+            for (int i = 0; i < this.fields.length; i++) {
+                Field field = this.fields[i].field;
+                fieldProviders[i] = injector.getProvider(keyProvider.getKey(injectableType, field, field.getAnnotation(annotationType)));
+            }
+            this.methods = methods.toArray(new MethodInvoker[methods.size()]);
+            this.parameterProviders = new Provider<?>[this.methods.length][];
+            for (int i = 0; i < this.methods.length; i++) {
+                MethodInvoker invokable = this.methods[i];
+                List<Key<?>> parameterKeys = keyProvider.getParameterKeys(injectableType, invokable.method, invokable.getAnnotation(annotationType));
+                Provider<?>[] providers = new Provider<?>[parameterKeys.size()];
+                for (int j = 0; j < providers.length; j++)
+                    providers[j] = injector.getProvider(parameterKeys.get(j));
+                parameterProviders[i] = providers;
+            }
+        }
+
+        void inject(Object injectee) {
+            // inject fields
+            for (int i = 0; i < fields.length; i++) {
+                fields[i].set(injectee, fieldProviders[i].get());
+            }
+            // inject methods
+            for (int i = 0; i < methods.length; i++) {
+                Provider<?>[] providers = parameterProviders[i];
+                switch (providers.length) {
+                    case 0:
+                        methods[i].invoke(injectee);
+                        break;
+                    case 1:
+                        methods[i].invoke(injectee, providers[0].get());
+                        break;
+                    case 2:
+                        methods[i].invoke(injectee, providers[0].get(), providers[1].get());
+                        break;
+                    case 3:
+                        methods[i].invoke(injectee, providers[0].get(), providers[1].get(), providers[2].get());
+                        break;
+                    default:
+                        Object[] parameters = new Object[providers.length];
+                        for (int j = 0; j < parameters.length; j++)
+                            parameters[j] = providers[j].get();
+                        methods[i].invoke(injectee, parameters);
                 }
-            });
+            }
         }
     }
 
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import com.google.inject.MembersInjector;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.InjectionListener;
+import com.google.inject.spi.TypeEncounter;
+import com.google.inject.spi.TypeListener;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * A {@link TypeListener} handling the members annotated by one annotation type, which can also contribute to the single
+ * member scan of an {@link AnnotatedMemberTypeListener}.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+interface MemberTypeListener extends TypeListener {
+
+    Class<? extends Annotation> getAnnotationType();
+
+    /**
+     * @return the injector for the candidate members carrying {@link #getAnnotationType()}, or null if there is nothing to inject
+     */
+    <I> MembersInjector<I> membersInjector(TypeLiteral<I> type, TypeEncounter<I> encounter, Iterable<Field> fields, Iterable<Method> methods);
+
+    /**
+     * @return the listener for the candidate members carrying {@link #getAnnotationType()}, or null if there is nothing to handle
+     */
+    <I> InjectionListener<I> injectionListener(TypeLiteral<I> type, TypeEncounter<I> encounter, Iterable<Field> fields, Iterable<Method> methods);
+
+}
@@ -15,23 +15,26 @@
  */
 package com.mycila.guice.ext.injection;
 
+import com.google.inject.MembersInjector;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.google.inject.spi.InjectionListener;
 import com.google.inject.spi.TypeEncounter;
-import com.google.inject.spi.TypeListener;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.List;
 
-import static com.google.common.collect.Lists.newLinkedList;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.reverse;
 
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  */
-public class MethodHandlerTypeListener<A extends Annotation> implements TypeListener {
+public class MethodHandlerTypeListener<A extends Annotation> implements MemberTypeListener {
     private final Class<A> annotationType;
     private final Class<? extends MethodHandler<A>> handlerClass;
 
@@ -41,18 +44,37 @@ public class MethodHandlerTypeListener<A extends Annotation> implements TypeList
     }
 
     @Override
-    public <I> void hear(final TypeLiteral<I> type, TypeEncounter<I> encounter) {
-        final Provider<? extends MethodHandler<A>> provider = encounter.getProvider(handlerClass);
-        final List<Method> methods = reverse(newLinkedList(Reflect.findAllAnnotatedMethods(type.getRawType(), annotationType)));
-        if (!methods.isEmpty()) {
-            encounter.register(new InjectionListener<I>() {
-                @Override
-                public void afterInjection(I injectee) {
-                    MethodHandler<A> handler = provider.get();
-                    for (Method method : methods)
-                        handler.handle(type, injectee, method, method.getAnnotation(annotationType));
-                }
-            });
+    public Class<A> getAnnotationType() {
+        return annotationType;
+    }
+
+    @Override
+    public <I> void hear(TypeLiteral<I> type, TypeEncounter<I> encounter) {
+        InjectionListener<I> listener = injectionListener(type, encounter, Collections.<Field>emptyList(), Reflect.findAllAnnotatedMethods(type.getRawType(), annotationType));
+        if (listener != null) {
+            encounter.register(listener);
+        }
+    }
+
+    @Override
+    public <I> MembersInjector<I> membersInjector(TypeLiteral<I> type, TypeEncounter<I> encounter, Iterable<Field> fields, Iterable<Method> methods) {
+        return null;
+    }
+
+    @Override
+    public <I> InjectionListener<I> injectionListener(final TypeLiteral<I> type, TypeEncounter<I> encounter, Iterable<Field> fields, Iterable<Method> candidates) {
+        final List<Method> methods = reverse(newArrayList(filter(candidates, Reflect.<Method>annotatedBy(annotationType))));
+        if (methods.isEmpty()) {
+            return null;
         }
+        final Provider<? extends MethodHandler<A>> provider = encounter.getProvider(handlerClass);
+        return new InjectionListener<I>() {
+            @Override
+            public void afterInjection(I injectee) {
+                MethodHandler<A> handler = provider.get();
+                for (Method method : methods)
+                    handler.handle(type, injectee, method, method.getAnnotation(annotationType));
+            }
+        };
     }
 }
@@ -19,14 +19,25 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.concurrent.ExecutionException;
 
 /**
+ * Invokes a {@link Method} through a {@link MethodHandle} built once per method instead of
+ * going through {@link Method#invoke(Object, Object...)} on each call.
+ * <p>
+ * Methods taking up to 3 parameters are called through a fixed-arity handle, so no
+ * parameter array is spread on each call. Others go through a spreading handle.
+ *
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  */
 public class MethodInvoker implements Member, AnnotatedElement {
 
+    private static final int MAX_FIXED_ARITY = 3;
+
     private static final LoadingCache<Method, MethodInvoker> INVOKERS = CacheBuilder.newBuilder()
         .weakKeys()
         .build(new CacheLoader<Method, MethodInvoker>() {
@@ -42,20 +53,94 @@ public class MethodInvoker implements Member, AnnotatedElement {
 
     public final Method method;
 
-    private MethodInvoker(Method method) {
+    private final int arity;
+    private final MethodHandle handle;
+
+    private MethodInvoker(Method method) throws IllegalAccessException {
         this.method = method;
+        this.arity = method.getParameterCount();
+        // unreflect() honors the accessible flag set by the cache loader
+        MethodHandle mh = MethodHandles.lookup().unreflect(method).asFixedArity();
+        if (Modifier.isStatic(method.getModifiers())) {
+            // static methods ignore the target, like Method.invoke() does
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+        }
+        // (Object target, Object... params) -> Object, with void returning null
+        mh = mh.asType(MethodType.genericMethodType(arity + 1));
+        this.handle = arity <= MAX_FIXED_ARITY ? mh : mh.asSpreader(Object[].class, arity);
     }
 
-    public Object invoke(Object target, Object... parameters) {
+    public Object invoke(Object target) {
+        if (arity != 0) {
+            throw wrongArity(0);
+        }
         try {
-            return method.invoke(target, parameters);
-        } catch (IllegalAccessException e) {
+            return handle.invokeExact(target);
+        } catch (Throwable e) {
             throw MycilaGuiceException.toRuntime(e);
-        } catch (InvocationTargetException e) {
+        }
+    }
+
+    public Object invoke(Object target, Object p1) {
+        if (arity != 1) {
+            throw wrongArity(1);
+        }
+        try {
+            return handle.invokeExact(target, p1);
+        } catch (Throwable e) {
+            throw MycilaGuiceException.toRuntime(e);
+        }
+    }
+
+    public Object invoke(Object target, Object p1, Object p2) {
+        if (arity != 2) {
+            throw wrongArity(2);
+        }
+        try {
+            return handle.invokeExact(target, p1, p2);
+        } catch (Throwable e) {
             throw MycilaGuiceException.toRuntime(e);
         }
     }
 
+    public Object invoke(Object target, Object p1, Object p2, Object p3) {
+        if (arity != 3) {
+            throw wrongArity(3);
+        }
+        try {
+            return handle.invokeExact(target, p1, p2, p3);
+        } catch (Throwable e) {
+            throw MycilaGuiceException.toRuntime(e);
+        }
+    }
+
+    public Object invoke(Object target, Object... parameters) {
+        int count = parameters == null ? 0 : parameters.length;
+        if (count != arity) {
+            throw wrongArity(count);
+        }
+        try {
+            switch (arity) {
+                case 0:
+                    return handle.invokeExact(target);
+                case 1:
+                    return handle.invokeExact(target, parameters[0]);
+                case 2:
+                    return handle.invokeExact(target, parameters[0], parameters[1]);
+                case 3:
+                    return handle.invokeExact(target, parameters[0], parameters[1], parameters[2]);
+                default:
+                    return handle.invokeExact(target, parameters);
+            }
+        } catch (Throwable e) {
+            throw MycilaGuiceException.toRuntime(e);
+        }
+    }
+
+    private IllegalArgumentException wrongArity(int count) {
+        return new IllegalArgumentException("Wrong number of arguments for " + method + ": expected " + arity + ", got " + count);
+    }
+
     public static MethodInvoker on(Method method) {
         try {
             return INVOKERS.get(method);
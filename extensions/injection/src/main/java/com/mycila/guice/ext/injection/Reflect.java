@@ -15,13 +15,9 @@
  */
 package com.mycila.guice.ext.injection;
 
-import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.inject.Key;
 import com.google.inject.TypeLiteral;
 import com.google.inject.internal.Annotations;
@@ -29,14 +25,13 @@ import com.google.inject.internal.Annotations;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import static com.google.common.collect.Iterables.concat;
-import static com.google.common.collect.Iterables.transform;
-import static java.util.Arrays.asList;
 
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
@@ -44,19 +39,8 @@ import static java.util.Arrays.asList;
  */
 public class Reflect {
 
-    private static final Function<Signature, Method> TO_METHOD = new Function<Signature, Method>() {
-        @Override
-        public Method apply(Signature from) {
-            return from.method;
-        }
-    };
-
-    private static final List<Signature> OBJECT_METHODS = Lists.newArrayList(transform(asList(Object.class.getDeclaredMethods()), new Function<Method, Signature>() {
-        @Override
-        public Signature apply(Method from) {
-            return new Signature(from);
-        }
-    }));
+    private static final Signature[] NO_METHODS = new Signature[0];
+    private static final Signature[] OBJECT_METHODS = signatures(Object.class.getDeclaredMethods());
 
     private static Key<?> buildKey(TypeLiteral<?> type, Annotation[] annotations) {
         for (Annotation annotation : annotations)
@@ -65,60 +49,109 @@ public class Reflect {
         return Key.get(type);
     }
 
-    private static final LoadingCache<AnnotatedElement, Set<Class<? extends Annotation>>> ANNOT_CACHE = CacheBuilder.newBuilder()
-        .weakKeys()
-        .softValues()
-        .build(new CacheLoader<AnnotatedElement, Set<Class<? extends Annotation>>>() {
-            @Override
-            public Set<Class<? extends Annotation>> load(AnnotatedElement e) throws Exception {
-                Annotation[] annotations = e.getDeclaredAnnotations();
-                Set<Class<? extends Annotation>> annotationTypes = new HashSet<Class<? extends Annotation>>(annotations.length);
-                for (Annotation annotation : annotations) {
-                    annotationTypes.add(annotation.annotationType());
+    /**
+     * The annotation types declared on the members of a class, or on the class itself, by owning class.
+     */
+    private static final ClassCache<ConcurrentMap<AnnotatedElement, Set<Class<? extends Annotation>>>> ANNOT_CACHE = new ClassCache<ConcurrentMap<AnnotatedElement, Set<Class<? extends Annotation>>>>() {
+        @Override
+        protected ConcurrentMap<AnnotatedElement, Set<Class<? extends Annotation>>> compute(Class<?> type) {
+            return new ConcurrentHashMap<AnnotatedElement, Set<Class<? extends Annotation>>>();
+        }
+    };
+
+    /**
+     * All the methods of a class hierarchy, flattened once per class: the methods declared by the class first, then the
+     * ones inherited from its superclasses which are not overridden.
+     */
+    private static final ClassCache<MethodHierarchy> METHODS = new ClassCache<MethodHierarchy>() {
+        @Override
+        protected MethodHierarchy compute(Class<?> clazz) {
+            Signature[] sup;
+            Class<?> sc = clazz.getSuperclass();
+            if (sc == null)
+                sup = NO_METHODS;
+            else if (sc == Object.class)
+                sup = OBJECT_METHODS;
+            else
+                sup = METHODS.get(sc).signatures;
+            Signature[] declared = signatures(clazz.isInterface() ? clazz.getMethods() : clazz.getDeclaredMethods());
+            if (sup.length == 0) {
+                return new MethodHierarchy(declared);
+            }
+            Map<Signature, Signature> index = new HashMap<Signature, Signature>(declared.length * 2);
+            for (Signature signature : declared)
+                index.putIfAbsent(signature, signature);
+            List<Signature> all = new ArrayList<Signature>(declared.length + sup.length);
+            Collections.addAll(all, declared);
+            for (Signature inherited : sup) {
+                Signature override = index.get(inherited);
+                if (override == null || !overrides(override.method, inherited.method)) {
+                    all.add(inherited);
                 }
-                return annotationTypes;
             }
-        });
+            return new MethodHierarchy(all.toArray(new Signature[all.size()]));
+        }
+    };
 
-    private static final LoadingCache<Class<?>, List<Signature>> METHODS = CacheBuilder.newBuilder()
-        .weakKeys()
-        .softValues()
-        .build(new CacheLoader<Class<?>, List<Signature>>() {
-            @Override
-            public List<Signature> load(Class<?> clazz) throws Exception {
-                List<Signature> sup;
-                Class<?> sc = clazz.getSuperclass();
-                if (sc == null)
-                    sup = Collections.emptyList();
-                else if (sc == Object.class)
-                    sup = OBJECT_METHODS;
-                else
-                    sup = METHODS.get(sc);
-                Method[] methods = clazz.isInterface() ? clazz.getMethods() : clazz.getDeclaredMethods();
-                final List<Signature> thisMethods = new ArrayList<Signature>(methods.length);
-                for (Method method : methods) {
-                    if (!(method.isSynthetic() || method.isBridge())) {
-                        thisMethods.add(new Signature(method));
-                    }
-                }
-                return Lists.newLinkedList(concat(thisMethods, Iterables.filter(sup, new Predicate<Signature>() {
-                    @Override
-                    public boolean apply(Signature input) {
-                        int pos = thisMethods.indexOf(input);
-                        if (pos == -1) return true;
-                        Signature override = thisMethods.get(pos);
-                        return !overrides(override.method, input.method);
-                    }
-                })));
+    /**
+     * All the fields of a class hierarchy, flattened once per class: the fields declared by the class first, then the
+     * ones of its superclasses.
+     */
+    private static final ClassCache<List<Field>> FIELDS = new ClassCache<List<Field>>() {
+        @Override
+        protected List<Field> compute(Class<?> clazz) {
+            Field[] declared = clazz.getDeclaredFields();
+            Class<?> sc = clazz.getSuperclass();
+            List<Field> sup = sc == null || sc == Object.class ? Collections.<Field>emptyList() : FIELDS.get(sc);
+            if (sup.isEmpty()) {
+                return Collections.unmodifiableList(Arrays.asList(declared));
             }
-        });
+            Field[] all = Arrays.copyOf(declared, declared.length + sup.size());
+            for (int i = 0; i < sup.size(); i++)
+                all[declared.length + i] = sup.get(i);
+            return Collections.unmodifiableList(Arrays.asList(all));
+        }
+    };
+
+    /**
+     * The annotated members of a class hierarchy, per annotation type. Annotation types are weak keys so that their
+     * class loader can be unloaded.
+     */
+    private static final ClassCache<ConcurrentMap<Class<? extends Annotation>, AnnotatedMembers>> ANNOTATED_MEMBERS = new ClassCache<ConcurrentMap<Class<? extends Annotation>, AnnotatedMembers>>() {
+        @Override
+        protected ConcurrentMap<Class<? extends Annotation>, AnnotatedMembers> compute(Class<?> type) {
+            return new MapMaker().weakKeys().concurrencyLevel(1).makeMap();
+        }
+    };
 
     public static boolean isAnnotationPresent(AnnotatedElement annotatedElement, Class<? extends Annotation> annotationType) {
-        try {
-            return ANNOT_CACHE.get(annotatedElement).contains(annotationType);
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e.getMessage(), e);
+        return annotationTypes(annotatedElement).contains(annotationType);
+    }
+
+    private static Set<Class<? extends Annotation>> annotationTypes(AnnotatedElement element) {
+        Class<?> owner = element instanceof Member ? ((Member) element).getDeclaringClass() : element instanceof Class ? (Class<?>) element : null;
+        if (owner == null) {
+            return declaredAnnotationTypes(element);
+        }
+        ConcurrentMap<AnnotatedElement, Set<Class<? extends Annotation>>> byElement = ANNOT_CACHE.get(owner);
+        Set<Class<? extends Annotation>> annotationTypes = byElement.get(element);
+        if (annotationTypes == null) {
+            annotationTypes = declaredAnnotationTypes(element);
+            byElement.putIfAbsent(element, annotationTypes);
+        }
+        return annotationTypes;
+    }
+
+    private static Set<Class<? extends Annotation>> declaredAnnotationTypes(AnnotatedElement element) {
+        Annotation[] annotations = element.getDeclaredAnnotations();
+        if (annotations.length == 0) {
+            return Collections.emptySet();
+        }
+        Set<Class<? extends Annotation>> annotationTypes = new HashSet<Class<? extends Annotation>>(annotations.length * 2);
+        for (Annotation annotation : annotations) {
+            annotationTypes.add(annotation.annotationType());
         }
+        return annotationTypes;
     }
 
     public static List<Key<?>> getParameterKeys(TypeLiteral<?> type, Method method) {
@@ -131,34 +164,47 @@ public class Reflect {
     }
 
     public static Iterable<MethodInvoker> findAllAnnotatedInvokables(Class<?> type, Class<? extends Annotation> annot) {
-        return transform(findAllAnnotatedMethods(type, annot), new Function<Method, MethodInvoker>() {
-            @Override
-            public MethodInvoker apply(Method method) {
-                return MethodInvoker.on(method);
-            }
-        });
+        return annotatedMembers(type, annot).invokers();
     }
 
     public static Iterable<Method> findAllAnnotatedMethods(Class<?> type, Class<? extends Annotation> annot) {
-        return Iterables.filter(findAllMethods(type), annotatedBy(annot));
+        return annotatedMembers(type, annot).methods;
     }
 
     public static Iterable<Method> findAllMethods(Class<?> type) {
-        try {
-            return transform(METHODS.get(type), TO_METHOD);
-        } catch (ExecutionException e) {
-            throw MycilaGuiceException.toRuntime(e);
-        }
+        return METHODS.get(type).methods;
+    }
+
+    public static Iterable<FieldAccessor> findAllAnnotatedAccessors(Class<?> type, Class<? extends Annotation> annot) {
+        return annotatedMembers(type, annot).accessors();
     }
 
     public static Iterable<Field> findAllAnnotatedFields(Class<?> type, Class<? extends Annotation> annot) {
-        return Iterables.filter(findAllFields(type), annotatedBy(annot));
+        return annotatedMembers(type, annot).fields;
+    }
+
+    private static AnnotatedMembers annotatedMembers(Class<?> type, Class<? extends Annotation> annot) {
+        ConcurrentMap<Class<? extends Annotation>, AnnotatedMembers> byAnnotation = ANNOTATED_MEMBERS.get(type);
+        AnnotatedMembers members = byAnnotation.get(annot);
+        if (members == null) {
+            members = AnnotationIndex.excludes(type, Collections.<Class<? extends Annotation>>singleton(annot)) ?
+                AnnotatedMembers.NONE :
+                new AnnotatedMembers(
+                    Iterables.toArray(Iterables.filter(findAllMethods(type), Reflect.<Method>annotatedBy(annot)), Method.class),
+                    Iterables.toArray(Iterables.filter(findAllFields(type), Reflect.<Field>annotatedBy(annot)), Field.class));
+            AnnotatedMembers previous = byAnnotation.putIfAbsent(annot, members);
+            if (previous != null) {
+                members = previous;
+            }
+        }
+        return members;
     }
 
     public static Iterable<Field> findAllFields(Class<?> type) {
-        return type == null || type == Object.class ?
-            new LinkedList<Field>() :
-            concat(Lists.newArrayList(type.getDeclaredFields()), findAllFields(type.getSuperclass()));
+        if (type == null || type == Object.class) {
+            return Collections.emptyList();
+        }
+        return FIELDS.get(type);
     }
 
     public static Class<?> getTargetClass(Class<?> proxy) {
@@ -184,6 +230,21 @@ public class Reflect {
         };
     }
 
+    public static <T extends AnnotatedElement> Predicate<T> annotatedByAny(final Set<Class<? extends Annotation>> annotationTypes) {
+        return new Predicate<T>() {
+            @Override
+            public boolean apply(T element) {
+                Set<Class<? extends Annotation>> present = annotationTypes(element);
+                if (!present.isEmpty()) {
+                    for (Class<? extends Annotation> annotationType : annotationTypes)
+                        if (present.contains(annotationType))
+                            return true;
+                }
+                return false;
+            }
+        };
+    }
+
     public static Predicate<Method> withSignature(final String methodName, final Class<?>... classes) {
         return new Predicate<Method>() {
             @Override
@@ -218,6 +279,66 @@ public class Reflect {
         return a.getDeclaringClass().getPackage().equals(b.getDeclaringClass().getPackage());
     }
 
+    private static Signature[] signatures(Method[] methods) {
+        List<Signature> signatures = new ArrayList<Signature>(methods.length);
+        for (Method method : methods) {
+            if (!(method.isSynthetic() || method.isBridge())) {
+                signatures.add(new Signature(method));
+            }
+        }
+        return signatures.toArray(new Signature[signatures.size()]);
+    }
+
+    private static final class MethodHierarchy {
+        final Signature[] signatures;
+        final List<Method> methods;
+
+        MethodHierarchy(Signature[] signatures) {
+            this.signatures = signatures;
+            Method[] methods = new Method[signatures.length];
+            for (int i = 0; i < methods.length; i++)
+                methods[i] = signatures[i].method;
+            this.methods = Collections.unmodifiableList(Arrays.asList(methods));
+        }
+    }
+
+    private static final class AnnotatedMembers {
+        static final AnnotatedMembers NONE = new AnnotatedMembers(new Method[0], new Field[0]);
+
+        final List<Method> methods;
+        final List<Field> fields;
+        // built on first use only: making members accessible can fail for some callers which only need to list them
+        private volatile List<MethodInvoker> invokers;
+        private volatile List<FieldAccessor> accessors;
+
+        AnnotatedMembers(Method[] methods, Field[] fields) {
+            this.methods = Collections.unmodifiableList(Arrays.asList(methods));
+            this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+        }
+
+        List<MethodInvoker> invokers() {
+            List<MethodInvoker> list = invokers;
+            if (list == null) {
+                MethodInvoker[] array = new MethodInvoker[methods.size()];
+                for (int i = 0; i < array.length; i++)
+                    array[i] = MethodInvoker.on(methods.get(i));
+                invokers = list = Collections.unmodifiableList(Arrays.asList(array));
+            }
+            return list;
+        }
+
+        List<FieldAccessor> accessors() {
+            List<FieldAccessor> list = accessors;
+            if (list == null) {
+                FieldAccessor[] array = new FieldAccessor[fields.size()];
+                for (int i = 0; i < array.length; i++)
+                    array[i] = FieldAccessor.on(fields.get(i));
+                accessors = list = Collections.unmodifiableList(Arrays.asList(array));
+            }
+            return list;
+        }
+    }
+
     private static final class Signature {
         public final Class[] parameterTypes;
         private final int hash;
@@ -226,7 +347,8 @@ public class Reflect {
         public Signature(Method method) {
             this.method = method;
             this.parameterTypes = method.getParameterTypes();
-            int h = method.hashCode();
+            // equal signatures can be declared by different classes: the declaring class must not be part of the hash
+            int h = method.getName().hashCode();
             h = h * 31 + parameterTypes.length;
             for (Class parameterType : parameterTypes) {
                 h = h * 31 + parameterType.hashCode();
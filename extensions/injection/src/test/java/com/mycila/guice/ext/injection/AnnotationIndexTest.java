@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import static com.google.common.collect.Iterables.size;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The classes listed in src/test/resources/META-INF/mycila-guice/annotations.index are trusted without being scanned.
+ */
+@RunWith(JUnit4.class)
+public class AnnotationIndexTest {
+
+    @Test
+    public void test_indexed_class_is_not_scanned() throws Exception {
+        // the index deliberately omits the annotation to show that reflection is skipped
+        assertEquals(0, size(Reflect.findAllAnnotatedMethods(Indexed.class, Marker.class)));
+        assertEquals(0, size(Reflect.findAllAnnotatedFields(Indexed.class, Marker.class)));
+    }
+
+    @Test
+    public void test_hierarchy_with_annotation_is_scanned() throws Exception {
+        assertEquals(1, size(Reflect.findAllAnnotatedMethods(IndexedChild.class, Marker.class)));
+    }
+
+    @Test
+    public void test_unlisted_class_is_scanned() throws Exception {
+        assertEquals(1, size(Reflect.findAllAnnotatedMethods(Unlisted.class, Marker.class)));
+        assertEquals(1, size(Reflect.findAllAnnotatedFields(Unlisted.class, Marker.class)));
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Marker {
+    }
+
+    static class Indexed {
+        @Marker
+        String field;
+
+        @Marker
+        void method() {
+        }
+    }
+
+    static class IndexedParent {
+        @Marker
+        void method() {
+        }
+    }
+
+    static class IndexedChild extends IndexedParent {
+    }
+
+    static class Unlisted {
+        @Marker
+        String field;
+
+        @Marker
+        void method() {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ClassCacheTest {
+
+    @Test
+    public void test_computed_once_per_class() throws Exception {
+        for (ClassCache.Retention retention : ClassCache.Retention.values()) {
+            Counter cache = new Counter(retention);
+            Object[] value = cache.get(String.class);
+            assertSame(value, cache.get(String.class));
+            cache.get(Integer.class);
+            assertEquals(retention.name(), 2, cache.computed.get());
+        }
+    }
+
+    @Test
+    public void test_values_of_other_class_loaders_not_stored_in_their_classes() throws Exception {
+        assertTrue(ClassCache.isLocal(ClassCacheTest.class));
+        assertFalse(ClassCache.isLocal(Object.class));
+        assertFalse(ClassCache.isLocal(String.class));
+        for (ClassCache.Retention retention : ClassCache.Retention.values()) {
+            Counter cache = new Counter(retention);
+            Object[] value = cache.get(Object.class);
+            assertSame(value, cache.get(Object.class));
+            assertSame(cache.get(ClassCacheTest.class), cache.get(ClassCacheTest.class));
+            assertEquals(retention.name(), 2, cache.computed.get());
+        }
+    }
+
+    @Test
+    public void test_values_of_unrelated_class_loaders_do_not_pin_them() throws Exception {
+        assertTrue(ClassCache.outlivesLibrary(Object.class));
+        Class<?> plugin = pluginClass();
+        assertFalse(ClassCache.isLocal(plugin));
+        assertFalse(ClassCache.outlivesLibrary(plugin));
+        for (ClassCache.Retention retention : ClassCache.Retention.values()) {
+            Counter cache = new Counter(retention);
+            Object[] value = cache.get(plugin);
+            assertSame(value, cache.get(plugin));
+            assertEquals(retention.name(), 1, cache.computed.get());
+        }
+        Counter cache = new Counter(ClassCache.Retention.WEAK);
+        cache.get(plugin);
+        WeakReference<Class<?>> unloaded = new WeakReference<Class<?>>(plugin);
+        plugin = null;
+        for (int i = 0; i < 50 && unloaded.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(unloaded.get());
+    }
+
+    /**
+     * @return a class of a class loader which is neither an ancestor nor a descendant of the one of this library
+     */
+    private static Class<?> pluginClass() throws Exception {
+        final String name = Plugin.class.getName();
+        InputStream in = ClassCacheTest.class.getResourceAsStream("/" + name.replace('.', '/') + ".class");
+        final byte[] bytes;
+        try {
+            bytes = ByteStreams.toByteArray(in);
+        } finally {
+            in.close();
+        }
+        return new ClassLoader(null) {
+            @Override
+            protected Class<?> findClass(String className) throws ClassNotFoundException {
+                if (!className.equals(name)) throw new ClassNotFoundException(className);
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        }.loadClass(name);
+    }
+
+    static class Plugin {
+    }
+
+    static class Counter extends ClassCache<Object[]> {
+        final AtomicInteger computed = new AtomicInteger();
+
+        Counter(Retention retention) {
+            super(retention);
+        }
+
+        @Override
+        protected Object[] compute(Class<?> type) {
+            computed.incrementAndGet();
+            return new Object[]{type};
+        }
+    }
+}
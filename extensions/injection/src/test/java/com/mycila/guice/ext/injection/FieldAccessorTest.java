@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class FieldAccessorTest {
+
+    @Test
+    public void test_set() throws Exception {
+        Target target = new Target();
+        FieldAccessor.on(Target.class.getDeclaredField("privateField")).set(target, "a");
+        FieldAccessor.on(Target.class.getDeclaredField("finalField")).set(target, "b");
+        FieldAccessor.on(Target.class.getDeclaredField("primitive")).set(target, 3);
+        FieldAccessor.on(Target.class.getDeclaredField("staticField")).set(null, "c");
+        assertEquals("a", target.privateField);
+        assertEquals("b", target.finalField);
+        assertEquals(3, target.primitive);
+        assertEquals("c", Target.staticField);
+    }
+
+    private static class Target {
+        static String staticField;
+
+        private String privateField;
+        private final String finalField = null;
+        int primitive;
+    }
+}
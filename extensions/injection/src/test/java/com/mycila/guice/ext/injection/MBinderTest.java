@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Module;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
+import com.google.inject.spi.TypeListenerBinding;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class MBinderTest {
+
+    static final List<String> calls = new ArrayList<String>();
+
+    @Test
+    public void test_single_listener_per_binder() throws Exception {
+        int count = 0;
+        for (Element element : Elements.getElements(module()))
+            if (element instanceof TypeListenerBinding)
+                count++;
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void test_handlers_run_in_registration_order() throws Exception {
+        calls.clear();
+        Bean bean = Guice.createInjector(module()).getInstance(Bean.class);
+        assertEquals("value", bean.field);
+        assertEquals(Arrays.asList("inject:value", "field:field", "method:init"), calls);
+    }
+
+    @Test
+    public void test_annotated_methods_heard_from_the_shared_scan() throws Exception {
+        final List<String> heard = new ArrayList<String>();
+        Module module = new AbstractModule() {
+            @Override
+            protected void configure() {
+                MBinder.wrap(binder())
+                    .handleMethodAfterInjection(Handled.class, LogMethodHandler.class)
+                    .listenAnnotatedMethods(Handled.class, new AnnotatedMethodListener<Handled>() {
+                        @Override
+                        public void hear(TypeLiteral<?> type, List<Method> methods) {
+                            for (Method method : methods)
+                                heard.add(type.getRawType().getSimpleName() + "." + method.getName());
+                        }
+                    });
+            }
+        };
+        int count = 0;
+        for (Element element : Elements.getElements(module))
+            if (element instanceof TypeListenerBinding)
+                count++;
+        assertEquals(1, count);
+        Guice.createInjector(module).getInstance(Plain.class);
+        assertEquals(Collections.emptyList(), heard);
+        calls.clear();
+        Guice.createInjector(module).getInstance(Handling.class);
+        assertEquals(Arrays.asList("Handling.init"), heard);
+        assertEquals(Arrays.asList("method:init"), calls);
+    }
+
+    private static Module module() {
+        return new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(String.class).annotatedWith(Names.named("value")).toInstance("value");
+                MBinder.wrap(binder())
+                    .bindAnnotationInjector(Autowire.class, AutowireKeyProvider.class)
+                    .handleFieldAfterInjection(Handled.class, LogFieldHandler.class)
+                    .handleMethodAfterInjection(Handled.class, LogMethodHandler.class);
+            }
+        };
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Autowire {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Handled {
+    }
+
+    public static class AutowireKeyProvider extends KeyProviderSkeleton<Autowire> {
+    }
+
+    public static class LogFieldHandler implements FieldHandler<Handled> {
+        @Override
+        public void handle(TypeLiteral<?> type, Object instance, Field field, Handled annotation) {
+            calls.add("field:" + field.getName());
+        }
+    }
+
+    public static class LogMethodHandler implements MethodHandler<Handled> {
+        @Override
+        public void handle(TypeLiteral<?> type, Object instance, Method method, Handled annotation) {
+            calls.add("method:" + method.getName());
+        }
+    }
+
+    static class Plain {
+    }
+
+    static class Handling {
+        @Handled
+        void init() {
+        }
+    }
+
+    static class Bean {
+        @Autowire
+        @Handled
+        @Named("value")
+        String field;
+
+        @Handled
+        void init() {
+        }
+
+        @Autowire
+        void inject(@Named("value") String value) {
+            calls.add("inject:" + value);
+        }
+    }
+}
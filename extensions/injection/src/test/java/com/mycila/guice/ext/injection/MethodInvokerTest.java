@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class MethodInvokerTest {
+
+    @Test
+    public void test_fixed_arities() throws Exception {
+        Target target = new Target();
+        assertNull(MethodInvoker.on(Target.class.getDeclaredMethod("none")).invoke(target));
+        assertEquals(1, target.calls);
+        assertEquals("a", MethodInvoker.on(Target.class.getDeclaredMethod("one", String.class)).invoke(target, "a"));
+        assertEquals(3, MethodInvoker.on(Target.class.getDeclaredMethod("two", int.class, int.class)).invoke(target, 1, 2));
+        assertEquals("abc", MethodInvoker.on(Target.class.getDeclaredMethod("three", String.class, String.class, String.class)).invoke(target, "a", "b", "c"));
+    }
+
+    @Test
+    public void test_spread_arity() throws Exception {
+        MethodInvoker invoker = MethodInvoker.on(Target.class.getDeclaredMethod("five", String.class, String.class, String.class, String.class, String.class));
+        assertEquals("abcde", invoker.invoke(new Target(), "a", "b", "c", "d", "e"));
+    }
+
+    @Test
+    public void test_static_ignores_target() throws Exception {
+        assertEquals("static", MethodInvoker.on(Target.class.getDeclaredMethod("statik")).invoke(null));
+        assertEquals("static", MethodInvoker.on(Target.class.getDeclaredMethod("statik")).invoke(new Target()));
+    }
+
+    @Test
+    public void test_cached() throws Exception {
+        Method method = Target.class.getDeclaredMethod("none");
+        assertSame(MethodInvoker.on(method), MethodInvoker.on(method));
+    }
+
+    @Test
+    public void test_exceptions() throws Exception {
+        try {
+            MethodInvoker.on(Target.class.getDeclaredMethod("fail")).invoke(new Target());
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("runtime", e.getMessage());
+        }
+        try {
+            MethodInvoker.on(Target.class.getDeclaredMethod("checked")).invoke(new Target());
+            fail();
+        } catch (MycilaGuiceException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        try {
+            MethodInvoker.on(Target.class.getDeclaredMethod("one", String.class)).invoke(new Target());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Wrong number of arguments"));
+        }
+    }
+
+    private static class Target {
+        int calls;
+
+        private void none() {
+            calls++;
+        }
+
+        private String one(String a) {
+            return a;
+        }
+
+        int two(int a, int b) {
+            return a + b;
+        }
+
+        protected String three(String a, String b, String c) {
+            return a + b + c;
+        }
+
+        String five(String a, String b, String c, String d, String e) {
+            return a + b + c + d + e;
+        }
+
+        private static String statik() {
+            return "static";
+        }
+
+        void fail() {
+            throw new IllegalStateException("runtime");
+        }
+
+        void checked() throws IOException {
+            throw new IOException("checked");
+        }
+    }
+}
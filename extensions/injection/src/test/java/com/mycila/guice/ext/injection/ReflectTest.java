@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.injection;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ReflectTest {
+
+    @Test
+    public void test_findAllMethods_removes_overridden_methods() throws Exception {
+        List<Method> methods = Lists.newArrayList(Iterables.filter(Reflect.findAllMethods(Child.class), Reflect.withSignature("shared")));
+        assertEquals(1, methods.size());
+        assertEquals(Child.class, methods.get(0).getDeclaringClass());
+    }
+
+    @Test
+    public void test_findAllMethods_keeps_private_methods() throws Exception {
+        List<Class<?>> declaring = new ArrayList<Class<?>>();
+        for (Method method : Iterables.filter(Reflect.findAllMethods(Child.class), Reflect.withSignature("hidden")))
+            declaring.add(method.getDeclaringClass());
+        assertEquals(Arrays.<Class<?>>asList(Child.class, Parent.class), declaring);
+    }
+
+    @Test
+    public void test_findAllMethods_includes_object_methods() throws Exception {
+        assertTrue(Iterables.any(Reflect.findAllMethods(Child.class), Reflect.withSignature("hashCode")));
+    }
+
+    @Test
+    public void test_findAllFields_lists_subclass_first() throws Exception {
+        List<String> names = new ArrayList<String>();
+        for (Field field : Reflect.findAllFields(Child.class))
+            names.add(field.getName());
+        assertEquals(Arrays.asList("childField", "parentField"), names);
+    }
+
+    @Test
+    public void test_cached() throws Exception {
+        assertSame(Reflect.findAllMethods(Child.class), Reflect.findAllMethods(Child.class));
+        assertSame(Reflect.findAllFields(Child.class), Reflect.findAllFields(Child.class));
+    }
+
+    @Test
+    public void test_findAllAnnotatedMethods_cached_per_annotation() throws Exception {
+        Iterable<Method> methods = Reflect.findAllAnnotatedMethods(Child.class, Marker.class);
+        assertEquals(1, Iterables.size(methods));
+        assertSame(methods, Reflect.findAllAnnotatedMethods(Child.class, Marker.class));
+        assertEquals(0, Iterables.size(Reflect.findAllAnnotatedMethods(Child.class, Test.class)));
+        assertSame(Reflect.findAllAnnotatedInvokables(Child.class, Marker.class), Reflect.findAllAnnotatedInvokables(Child.class, Marker.class));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void test_unmodifiable() throws Exception {
+        ((List<?>) Reflect.findAllFields(Child.class)).clear();
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Marker {
+    }
+
+    static class Parent {
+        String parentField;
+
+        @Marker
+        public void marked() {
+        }
+
+        public void shared() {
+        }
+
+        private void hidden() {
+        }
+    }
+
+    static class Child extends Parent {
+        String childField;
+
+        @Override
+        public void shared() {
+        }
+
+        private void hidden() {
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import com.mycila.guice.ext.injection.MethodHandler;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A {@code @PreDestroy} handler which can tell whether handling a method only invokes it, so that the
+ * {@link Jsr250Module} can call the invokers it prepared when the types were encountered instead.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+public interface IndexedPreDestroyHandler extends MethodHandler<PreDestroy> {
+    /**
+     * @return true if handling a method only invokes it when it is not static, false to have each method handled
+     */
+    boolean acceptsIndexedInvokers();
+}
@@ -15,56 +15,108 @@
  */
 package com.mycila.guice.ext.jsr250;
 
-import com.google.common.base.Supplier;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
 import com.google.inject.AbstractModule;
 import com.google.inject.Binding;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
-import com.google.inject.Key;
 import com.google.inject.Scope;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
+import com.google.inject.Stage;
 import com.google.inject.TypeLiteral;
-import com.google.inject.spi.Dependency;
-import com.google.inject.spi.HasDependencies;
+import com.google.inject.matcher.Matchers;
 import com.google.inject.spi.ProviderInstanceBinding;
 import com.mycila.guice.ext.closeable.CloseableInjector;
 import com.mycila.guice.ext.closeable.InjectorCloseListener;
+import com.mycila.guice.ext.closeable.ProvisionedSingletons;
+import com.mycila.guice.ext.closeable.Sequential;
+import com.mycila.guice.ext.closeable.ShutdownMetrics;
 import com.mycila.guice.ext.injection.MBinder;
 import com.mycila.guice.ext.injection.MethodHandler;
-import com.mycila.guice.ext.injection.Reflect;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 
-import java.lang.reflect.Method;
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  */
 public class Jsr250Module extends AbstractModule {
 
+    private int postConstructThreads;
+    private int preDestroyThreads;
+    private long preDestroyTimeoutNanos;
+
+    /**
+     * Defers the {@code @PostConstruct} methods annotated with {@link Parallel} called while a {@code Stage.PRODUCTION}
+     * injector is created, and runs them concurrently on at most {@code threads} threads once the eager singletons are
+     * created, before {@code Guice.createInjector()} returns. Each one runs after the ones of the instances it depends
+     * on.
+     */
+    public Jsr250Module withParallelPostConstruct(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive: " + threads);
+        this.postConstructThreads = threads;
+        return this;
+    }
+
+    /**
+     * Runs the {@code @PreDestroy} methods of independent singletons concurrently, on at most {@code threads} threads,
+     * when the injector is closed. Singletons are still destroyed before the singletons they depend on.
+     */
+    public Jsr250Module withParallelPreDestroy(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive: " + threads);
+        this.preDestroyThreads = threads;
+        return this;
+    }
+
+    /**
+     * Skips, with a warning, the {@code @PreDestroy} methods of a singleton which do not complete within this delay.
+     * The hung thread is interrupted. Without {@link #withParallelPreDestroy(int)}, singletons are destroyed one at a
+     * time on a separate thread.
+     */
+    public Jsr250Module withPreDestroyTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) throw new IllegalArgumentException("timeout must be positive: " + timeout);
+        this.preDestroyTimeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
     @Override
     public void configure() {
         requireBinding(CloseableInjector.class);
-        MyJsr250Destroyer destroyer = new MyJsr250Destroyer();
+        PreDestroyIndex index = new PreDestroyIndex();
+        MyJsr250Destroyer destroyer = new MyJsr250Destroyer(index, preDestroyThreads > 0 || preDestroyTimeoutNanos > 0 ?
+            new ParallelPreDestroyer(preDestroyThreads, preDestroyTimeoutNanos) :
+            null);
         requestInjection(destroyer);
         bind(MyJsr250Destroyer.class).toInstance(destroyer);
         bind(Jsr250KeyProvider.class).in(Singleton.class);
         bind(Jsr250PostConstructHandler.class).in(Singleton.class);
+        // the other stages do not create the singletons when the injector is created: nothing to wait for
+        PostConstructBatch batch = new PostConstructBatch(currentStage() == Stage.PRODUCTION ? postConstructThreads : 0);
+        bind(PostConstructBatch.class).toInstance(batch);
+        if (postConstructThreads > 0 && currentStage() == Stage.PRODUCTION) {
+            bindListener(Matchers.any(), batch);
+            // not bound: created as a just-in-time singleton, after all the explicit ones
+            requireBinding(PostConstructBatch.Barrier.class);
+        }
         bind(new TypeLiteral<MethodHandler<PreDestroy>>() {
         }).to(Jsr250PreDestroyHandler.class).in(Singleton.class);
         MBinder.wrap(binder())
             .bindAnnotationInjector(Resource.class, Jsr250KeyProvider.class)
-            .handleMethodAfterInjection(PostConstruct.class, Jsr250PostConstructHandler.class);
+            .handleMethodAfterInjection(PostConstruct.class, Jsr250PostConstructHandler.class)
+            .listenAnnotatedMethods(PreDestroy.class, index);
     }
 
+    // destroys the singletons the other listeners may still use
+    @Sequential
     static class MyJsr250Destroyer implements InjectorCloseListener {
         @Inject
         Injector injector;
@@ -72,64 +124,119 @@ public class Jsr250Module extends AbstractModule {
         @Inject
         MethodHandler<PreDestroy> destroyer;
 
+        @Inject
+        ProvisionedSingletons singletons;
+
+        @Inject
+        ShutdownMetrics metrics;
+
+        private final PreDestroyIndex index;
+
+        // null to destroy singletons sequentially on the closing thread
+        private final ParallelPreDestroyer parallel;
+
+        private ShutdownGraph graph;
+
+        MyJsr250Destroyer(PreDestroyIndex index, ParallelPreDestroyer parallel) {
+            this.index = index;
+            this.parallel = parallel;
+        }
+
         @Override
         public void onInjectorClosing() {
-            Map<Key<?>, Binding<?>> bindings = injector.getAllBindings();
-            Multimap<Binding<?>, Binding<?>> dependants = Multimaps.newSetMultimap(new IdentityHashMap<>(), new Supplier<Set<Binding<?>>>() {
-                @Override
-                public Set<Binding<?>> get() {
-                    return new HashSet<>();
-                }
-            });
-            for (Binding<?> binding : bindings.values()) {
-                if (binding instanceof HasDependencies) {
-                    for (Dependency<?> dependency : ((HasDependencies) binding).getDependencies()) {
-                        if (bindings.containsKey(dependency.getKey())) {
-                            dependants.put(injector.getBinding(dependency.getKey()), binding);
-                        }
-                    }
-                }
+            Map<Binding<?>, Object> created = singletons.inCreationOrder(injector);
+            if (parallel == null) {
+                destroy(injector, instances(injector, created));
+            } else {
+                ShutdownGraph graph = graph();
+                parallel.destroy(this, instances(graph.order, created), graph);
             }
-            Map<Object, Object> done = new IdentityHashMap<Object, Object>(bindings.size());
-            for (final Binding<?> binding : bindings.values())
-                if (Scopes.isSingleton(binding)) {
-                    close(binding, done, dependants);
-                }
             for (Scope scope : injector.getScopeBindings().values())
                 preDestroy(scope);
         }
 
-        private void close(Binding<?> binding, Map<Object, Object> done, Multimap<Binding<?>, Binding<?>> dependants) {
-            if (!done.containsKey(binding)) {
-                done.put(binding, Void.TYPE);
-                for (Binding<?> dependant : dependants.get(binding)) {
-                    close(dependant, done, dependants);
-                }
-                try {
-                    if (binding instanceof ProviderInstanceBinding<?>) {
-                        Object o = ((ProviderInstanceBinding) binding).getUserSuppliedProvider();
-                        if (!done.containsKey(o)) {
-                            preDestroy(o);
-                            done.put(o, Void.TYPE);
-                        }
-                    } else if (Scopes.isSingleton(binding)) {
-                        Object o = binding.getProvider().get();
-                        if (!done.containsKey(o)) {
-                            preDestroy(o);
-                            done.put(o, Void.TYPE);
-                        }
+        @Override
+        public void onChildInjectorClosing(Injector child) {
+            // a child injector has few singletons: no need to order them by dependencies
+            destroy(child, instances(child, singletons.inCreationOrder(child)));
+        }
+
+        /**
+         * Destroys the given instances, the last created first
+         */
+        private void destroy(Injector injector, List<Object> instances) {
+            Set<Object> done = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>(instances.size()));
+            for (int i = instances.size() - 1; i >= 0; i--) {
+                Object instance = instances.get(i);
+                if (done.add(instance)) {
+                    try {
+                        preDestroy(injector, instance);
+                    } catch (Exception e) {
+                        // just ignore close errors
                     }
-                } catch (Exception e) {
-                    // just ignore close errors
                 }
             }
         }
 
-        private void preDestroy(Object instance) {
-            TypeLiteral<?> type = TypeLiteral.get(Reflect.getTargetClass(instance));
-            for (Method method : Reflect.findAllAnnotatedMethods(type.getRawType(), PreDestroy.class)) {
-                destroyer.handle(type, instance, method, method.getAnnotation(PreDestroy.class));
+        private synchronized ShutdownGraph graph() {
+            // bindings of an injector never change once it is created
+            if (graph == null) {
+                graph = ShutdownGraph.of(injector);
             }
+            return graph;
+        }
+
+        /**
+         * @return the instances to destroy, in creation order. The providers of singletons exist before the injector,
+         * even if they have never been used.
+         */
+        private static List<Object> instances(Injector injector, Map<Binding<?>, Object> created) {
+            List<Object> instances = new ArrayList<Object>(created.size());
+            for (Binding<?> binding : injector.getAllBindings().values())
+                if (binding instanceof ProviderInstanceBinding<?> && !created.containsKey(binding) && Scopes.isSingleton(binding))
+                    instances.add(((ProviderInstanceBinding<?>) binding).getUserSuppliedProvider());
+            for (Map.Entry<Binding<?>, Object> entry : created.entrySet())
+                instances.add(entry.getKey() instanceof ProviderInstanceBinding<?> ?
+                    ((ProviderInstanceBinding<?>) entry.getKey()).getUserSuppliedProvider() :
+                    entry.getValue());
+            return instances;
+        }
+
+        /**
+         * @return for each binding, the instance to destroy, or null if there is none or if a previous binding returned it
+         */
+        private Object[] instances(Binding<?>[] order, Map<Binding<?>, Object> created) {
+            Object[] instances = new Object[order.length];
+            Set<Object> done = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>(order.length));
+            for (int i = 0; i < instances.length; i++) {
+                Binding<?> binding = order[i];
+                Object o = binding instanceof ProviderInstanceBinding<?> && Scopes.isSingleton(binding) ?
+                    ((ProviderInstanceBinding<?>) binding).getUserSuppliedProvider() :
+                    created.get(binding);
+                if (o != null && done.add(o)) {
+                    instances[i] = o;
+                }
+            }
+            return instances;
+        }
+
+        /**
+         * Calls the {@code @PreDestroy} methods of a singleton of the given injector, and reports the time they took
+         */
+        void preDestroy(Injector injector, Object instance) {
+            PreDestroyIndex.Methods methods = index.of(instance);
+            if (!methods.isEmpty()) {
+                long start = System.nanoTime();
+                try {
+                    methods.invoke(destroyer, instance);
+                } finally {
+                    metrics.preDestroyed(injector, instance, Duration.ofNanos(System.nanoTime() - start));
+                }
+            }
+        }
+
+        void preDestroy(Object instance) {
+            index.of(instance).invoke(destroyer, instance);
         }
     }
 
@@ -27,7 +27,10 @@ import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
@@ -37,14 +40,97 @@ class Jsr250PostConstructHandler implements MethodHandler<PostConstruct> {
     @Inject
     Provider<Injector> injector;
 
+    @Inject
+    PostConstructBatch batch;
+
+    private final ConcurrentMap<Method, Plan> plans = new ConcurrentHashMap<Method, Plan>();
+    // plans of the methods whose parameter keys depend on the type variables resolved by the injected type
+    private final ConcurrentMap<Method, ConcurrentMap<TypeLiteral<?>, Plan>> genericPlans = new ConcurrentHashMap<Method, ConcurrentMap<TypeLiteral<?>, Plan>>();
+
     @Override
-    public void handle(TypeLiteral<?> type, Object instance, Method method, PostConstruct annotation) {
+    public void handle(TypeLiteral<?> type, final Object instance, Method method, PostConstruct annotation) {
         if (!Modifier.isStatic(method.getModifiers())) {
+            Plan plan = plans.get(method);
+            if (plan == null) {
+                plan = planFor(type, method);
+            }
+            final Plan deferred = plan;
+            if (!plan.parallel || !batch.defer(instance, new Runnable() {
+                @Override
+                public void run() {
+                    deferred.invoke(instance);
+                }
+            })) {
+                plan.invoke(instance);
+            }
+        }
+    }
+
+    private Plan planFor(TypeLiteral<?> type, Method method) {
+        ConcurrentMap<TypeLiteral<?>, Plan> byType = genericPlans.get(method);
+        Plan plan = byType == null ? null : byType.get(type);
+        if (plan == null) {
+            plan = new Plan(type, method, injector.get());
+            if (!Plan.isGeneric(method)) {
+                plans.put(method, plan);
+            } else {
+                if (byType == null) {
+                    byType = new ConcurrentHashMap<TypeLiteral<?>, Plan>();
+                    ConcurrentMap<TypeLiteral<?>, Plan> existing = genericPlans.putIfAbsent(method, byType);
+                    if (existing != null) {
+                        byType = existing;
+                    }
+                }
+                byType.put(type, plan);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * A {@link PostConstruct} method with the {@link Provider}s of its parameters already resolved.
+     */
+    private static final class Plan {
+        private final MethodInvoker invoker;
+        private final Provider<?>[] providers;
+        final boolean parallel;
+
+        Plan(TypeLiteral<?> type, Method method, Injector injector) {
+            this.parallel = method.isAnnotationPresent(Parallel.class);
+            this.invoker = MethodInvoker.on(method);
             List<Key<?>> parameterKeys = Reflect.getParameterKeys(type, method);
-            Object[] parameters = new Object[parameterKeys.size()];
-            for (int i = 0; i < parameters.length; i++)
-                parameters[i] = injector.get().getProvider(parameterKeys.get(i)).get();
-            MethodInvoker.on(method).invoke(instance, parameters);
+            this.providers = new Provider<?>[parameterKeys.size()];
+            for (int i = 0; i < providers.length; i++)
+                providers[i] = injector.getProvider(parameterKeys.get(i));
+        }
+
+        void invoke(Object instance) {
+            switch (providers.length) {
+                case 0:
+                    invoker.invoke(instance);
+                    break;
+                case 1:
+                    invoker.invoke(instance, providers[0].get());
+                    break;
+                case 2:
+                    invoker.invoke(instance, providers[0].get(), providers[1].get());
+                    break;
+                case 3:
+                    invoker.invoke(instance, providers[0].get(), providers[1].get(), providers[2].get());
+                    break;
+                default:
+                    Object[] parameters = new Object[providers.length];
+                    for (int i = 0; i < parameters.length; i++)
+                        parameters[i] = providers[i].get();
+                    invoker.invoke(instance, parameters);
+            }
+        }
+
+        static boolean isGeneric(Method method) {
+            for (Type parameterType : method.getGenericParameterTypes())
+                if (!(parameterType instanceof Class))
+                    return true;
+            return false;
         }
     }
 
@@ -16,7 +16,6 @@
 package com.mycila.guice.ext.jsr250;
 
 import com.google.inject.TypeLiteral;
-import com.mycila.guice.ext.injection.MethodHandler;
 import com.mycila.guice.ext.injection.MethodInvoker;
 import jakarta.annotation.PreDestroy;
 
@@ -26,11 +25,17 @@ import java.lang.reflect.Modifier;
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  */
-class Jsr250PreDestroyHandler implements MethodHandler<PreDestroy> {
+class Jsr250PreDestroyHandler implements IndexedPreDestroyHandler {
+    // final: the indexed invokers do what this method does
     @Override
-    public void handle(TypeLiteral<?> type, Object instance, Method method, PreDestroy annotation) {
+    public final void handle(TypeLiteral<?> type, Object instance, Method method, PreDestroy annotation) {
         if (!Modifier.isStatic(method.getModifiers())) {
             MethodInvoker.on(method).invoke(instance);
         }
     }
+
+    @Override
+    public boolean acceptsIndexedInvokers() {
+        return true;
+    }
 }
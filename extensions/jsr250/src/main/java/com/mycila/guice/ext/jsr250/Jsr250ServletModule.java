@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.multibindings.Multibinder;
+import com.google.inject.servlet.ServletScopeListener;
+
+/**
+ * Calls the {@code @PreDestroy} methods of request scoped instances when the request completes, and of session
+ * scoped instances when the session is invalidated. Install it with {@link Jsr250Module} and a
+ * {@code ServletModule}. Session scoped instances require a {@code GuiceServletContextListener} registered in
+ * web.xml.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+public class Jsr250ServletModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        requireBinding(Jsr250Module.MyJsr250Destroyer.class);
+        Multibinder.newSetBinder(binder(), ServletScopeListener.class).addBinding().to(Jsr250ScopeListener.class);
+    }
+
+    @Singleton
+    static class Jsr250ScopeListener implements ServletScopeListener {
+        @Inject
+        Jsr250Module.MyJsr250Destroyer destroyer;
+
+        @Override
+        public void onOutOfScope(Object instance) {
+            destroyer.preDestroy(instance);
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code @PostConstruct} method which can run concurrently with the other ones while the injector is being
+ * created, when enabled with {@link Jsr250Module#withParallelPostConstruct(int)} in {@code Stage.PRODUCTION}.
+ * <p>
+ * Such a method runs after the {@code @Parallel} methods of the instances it depends on, and before
+ * {@code Guice.createInjector()} returns, but possibly after the other {@code @PostConstruct} methods, including the ones
+ * of its dependants: it must only prepare its own instance (preloading a cache, priming a pool, ...).
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Parallel {
+}
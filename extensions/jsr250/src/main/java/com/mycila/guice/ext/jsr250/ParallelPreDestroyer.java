@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs the {@code @PreDestroy} methods of the singletons of an injector on a bounded pool of threads.
+ * <p>
+ * Instances are the nodes of a DAG: an instance is only destroyed once all the instances depending on it are, and
+ * independent instances are destroyed concurrently. When a timeout is set, an instance whose {@code @PreDestroy}
+ * methods do not complete in time is logged and skipped: its thread is interrupted and the instances it depends on are
+ * destroyed anyway. The timeout of an instance starts when its {@code @PreDestroy} methods start to run, and a thread
+ * still running a skipped instance is replaced so that the next instances are not held behind it.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+final class ParallelPreDestroyer {
+
+    private static final Logger LOGGER = Logger.getLogger(ParallelPreDestroyer.class.getName());
+
+    private final int threads;
+    private final long timeoutNanos;
+
+    ParallelPreDestroyer(int threads, long timeoutNanos) {
+        this.threads = Math.max(1, threads);
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * @param instances for each node of the graph, the instance to destroy. A null instance has nothing to destroy but still orders its neighbours.
+     * @param graph     the destroy order of the nodes
+     */
+    void destroy(final Jsr250Module.MyJsr250Destroyer destroyer, final Object[] instances, ShutdownGraph graph) {
+        int[] pending = graph.pending();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new PreDestroyThreadFactory());
+        CompletionService<Integer> completion = new ExecutorCompletionService<Integer>(executor);
+        // when the tasks actually started to run: the time they spend in the queue does not count in their timeout
+        final Map<Integer, Long> starts = new ConcurrentHashMap<Integer, Long>();
+        Map<Future<Integer>, Integer> running = new IdentityHashMap<Future<Integer>, Integer>();
+        Deque<Integer> ready = new ArrayDeque<Integer>();
+        for (int i = 0; i < pending.length; i++)
+            if (pending[i] == 0)
+                ready.add(i);
+        int done = 0;
+        try {
+            while (done < instances.length) {
+                while (!ready.isEmpty() && running.size() < threads) {
+                    final int node = ready.poll();
+                    if (instances[node] == null) {
+                        done++;
+                        release(node, pending, graph, ready);
+                    } else {
+                        Future<Integer> future = completion.submit(new Callable<Integer>() {
+                            @Override
+                            public Integer call() {
+                                starts.put(node, System.nanoTime());
+                                try {
+                                    destroyer.preDestroy(destroyer.injector, instances[node]);
+                                } catch (Exception e) {
+                                    // just ignore close errors
+                                }
+                                return node;
+                            }
+                        });
+                        running.put(future, node);
+                    }
+                }
+                if (running.isEmpty()) {
+                    if (ready.isEmpty()) {
+                        // should not happen: the graph is acyclic and successors always have a greater index
+                        break;
+                    }
+                    continue;
+                }
+                Future<Integer> completed = timeoutNanos > 0 ? completion.poll(nextDeadline(running, starts) - System.nanoTime(), TimeUnit.NANOSECONDS) : completion.take();
+                if (completed != null) {
+                    // cancelled tasks are also reported here, after having been skipped
+                    Integer node = running.remove(completed);
+                    if (node != null) {
+                        done++;
+                        release(node, pending, graph, ready);
+                    }
+                }
+                if (timeoutNanos > 0) {
+                    long now = System.nanoTime();
+                    for (Iterator<Map.Entry<Future<Integer>, Integer>> it = running.entrySet().iterator(); it.hasNext(); ) {
+                        Map.Entry<Future<Integer>, Integer> entry = it.next();
+                        int node = entry.getValue();
+                        Long start = starts.get(node);
+                        if (start != null && start + timeoutNanos - now <= 0) {
+                            entry.getKey().cancel(true);
+                            it.remove();
+                            // a method ignoring the interruption keeps its thread: replace it so the next ones can run
+                            executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+                            executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+                            LOGGER.warning("@PreDestroy of " + instances[node].getClass().getName() + " did not complete within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms: skipping it");
+                            done++;
+                            release(node, pending, graph, ready);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warning("Interrupted while destroying singletons: " + (instances.length - done) + " remaining instances are not destroyed");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void release(int node, int[] pending, ShutdownGraph graph, Deque<Integer> ready) {
+        for (int i = graph.successorStart[node]; i < graph.successorStart[node + 1]; i++)
+            if (--pending[graph.successors[i]] == 0)
+                ready.add(graph.successors[i]);
+    }
+
+    private long nextDeadline(Map<Future<Integer>, Integer> running, Map<Integer, Long> starts) {
+        // a task not started yet is about to: it has at least a full timeout ahead
+        long next = System.nanoTime() + timeoutNanos;
+        for (int node : running.values()) {
+            Long start = starts.get(node);
+            if (start != null && start + timeoutNanos - next < 0) {
+                next = start + timeoutNanos;
+            }
+        }
+        return next;
+    }
+
+    private static final class PreDestroyThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mycila-jsr250-predestroy-" + count.incrementAndGet());
+            // a hung @PreDestroy method must not prevent the JVM from exiting
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
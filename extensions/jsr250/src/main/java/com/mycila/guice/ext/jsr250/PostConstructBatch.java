@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import com.google.inject.Binding;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.HasDependencies;
+import com.google.inject.spi.ProvisionListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Collects the {@link Parallel} {@code @PostConstruct} methods called while the injector is created, and runs them on a
+ * fork-join pool once the eager singletons are created, each one after the ones of the instances it depends on.
+ * <p>
+ * The batch is closed by {@link Barrier}: Guice creates the eager just-in-time singletons after the explicit ones, and
+ * the methods called after the barrier run right away.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+final class PostConstructBatch implements ProvisionListener {
+
+    private final int threads;
+    // the binding provisioned by each thread, which is the one of the instance being post-constructed
+    private final ThreadLocal<Binding<?>> provisioning = new ThreadLocal<Binding<?>>();
+    private final List<Deferred> deferred = new ArrayList<Deferred>();
+    private volatile boolean open;
+
+    /**
+     * @param threads 0 to never defer anything
+     */
+    PostConstructBatch(int threads) {
+        this.threads = threads;
+        this.open = threads > 0;
+    }
+
+    @Override
+    public <T> void onProvision(ProvisionInvocation<T> provision) {
+        if (!open) {
+            return;
+        }
+        Binding<?> previous = provisioning.get();
+        provisioning.set(provision.getBinding());
+        try {
+            provision.provision();
+        } finally {
+            if (previous == null) {
+                provisioning.remove();
+            } else {
+                provisioning.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return false if the method must be called now
+     */
+    synchronized boolean defer(Object instance, Runnable method) {
+        Binding<?> binding = provisioning.get();
+        if (!open || binding == null) {
+            // instances injected outside of a provisioning (toInstance(), requestInjection()) are not deferred
+            return false;
+        }
+        Deferred last = deferred.isEmpty() ? null : deferred.get(deferred.size() - 1);
+        if (last != null && last.instance == instance) {
+            last.methods.add(method);
+        } else {
+            deferred.add(new Deferred(binding.getKey(), instance, method));
+        }
+        return true;
+    }
+
+    /**
+     * Runs the deferred methods and waits for them.
+     */
+    void await(Injector injector) {
+        List<Deferred> tasks;
+        synchronized (this) {
+            open = false;
+            tasks = new ArrayList<Deferred>(deferred);
+            deferred.clear();
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        Map<Key<?>, List<Integer>> byKey = new HashMap<Key<?>, List<Integer>>();
+        for (int i = 0; i < tasks.size(); i++) {
+            List<Integer> list = byKey.get(tasks.get(i).key);
+            if (list == null) {
+                byKey.put(tasks.get(i).key, list = new ArrayList<Integer>(1));
+            }
+            list.add(i);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Map<Key<?>, Set<Key<?>>> memo = new HashMap<Key<?>, Set<Key<?>>>();
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+            for (int i = 0; i < futures.length; i++) {
+                List<CompletableFuture<?>> before = new ArrayList<CompletableFuture<?>>();
+                for (Key<?> key : prerequisites(injector, tasks.get(i).key, byKey.keySet(), memo)) {
+                    // a dependency registered later is part of a cycle: waiting for it would never end
+                    for (int task : byKey.get(key)) {
+                        if (task < i) {
+                            before.add(futures[task]);
+                        }
+                    }
+                }
+                futures[i] = CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[0])).thenRunAsync(tasks.get(i), pool);
+            }
+            try {
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException e) {
+                // the first one in creation order, like if the methods had been called sequentially
+                for (CompletableFuture<?> future : futures) {
+                    if (future.isCompletedExceptionally()) {
+                        try {
+                            future.join();
+                        } catch (CompletionException failure) {
+                            Throwable cause = failure.getCause() == null ? failure : failure.getCause();
+                            if (cause instanceof Error) throw (Error) cause;
+                            throw cause instanceof RuntimeException ? (RuntimeException) cause : failure;
+                        }
+                    }
+                }
+                throw e;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the deferred keys the given key depends on, directly or through bindings without deferred methods
+     */
+    private static Set<Key<?>> prerequisites(Injector injector, Key<?> root, Set<Key<?>> deferred, Map<Key<?>, Set<Key<?>>> memo) {
+        // iterative post-order traversal: dependency chains can be deeper than the stack
+        Deque<Key<?>> stack = new ArrayDeque<Key<?>>();
+        Set<Key<?>> expanded = new HashSet<Key<?>>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Key<?> key = stack.peek();
+            if (key != root && memo.containsKey(key)) {
+                stack.pop();
+                continue;
+            }
+            List<Key<?>> dependencies = dependencies(injector, key);
+            if (expanded.add(key)) {
+                for (Key<?> dependency : dependencies)
+                    if (!deferred.contains(dependency) && !memo.containsKey(dependency) && !expanded.contains(dependency))
+                        stack.push(dependency);
+            } else {
+                stack.pop();
+                Set<Key<?>> keys = new HashSet<Key<?>>();
+                for (Key<?> dependency : dependencies) {
+                    if (deferred.contains(dependency)) {
+                        keys.add(dependency);
+                    } else if (memo.containsKey(dependency)) {
+                        keys.addAll(memo.get(dependency));
+                    }
+                }
+                if (key == root) {
+                    keys.remove(root);
+                    return keys;
+                }
+                memo.put(key, keys);
+            }
+        }
+        return Collections.emptySet();
+    }
+
+    private static List<Key<?>> dependencies(Injector injector, Key<?> key) {
+        Binding<?> binding = injector.getExistingBinding(key);
+        if (!(binding instanceof HasDependencies)) {
+            return Collections.emptyList();
+        }
+        Set<Dependency<?>> dependencies = ((HasDependencies) binding).getDependencies();
+        List<Key<?>> keys = new ArrayList<Key<?>>(dependencies.size());
+        for (Dependency<?> dependency : dependencies)
+            keys.add(dependency.getKey());
+        return keys;
+    }
+
+    private static final class Deferred implements Runnable {
+        final Key<?> key;
+        final Object instance;
+        final List<Runnable> methods = new ArrayList<Runnable>(1);
+
+        Deferred(Key<?> key, Object instance, Runnable method) {
+            this.key = key;
+            this.instance = instance;
+            this.methods.add(method);
+        }
+
+        @Override
+        public void run() {
+            for (Runnable method : methods)
+                method.run();
+        }
+    }
+
+    /**
+     * Created last when the injector is created, as an eager just-in-time singleton
+     */
+    @Singleton
+    static final class Barrier {
+        @Inject
+        Barrier(Injector injector, PostConstructBatch batch) {
+            batch.await(injector);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import com.google.inject.TypeLiteral;
+import com.mycila.guice.ext.injection.AnnotatedMethodListener;
+import com.mycila.guice.ext.injection.MethodHandler;
+import com.mycila.guice.ext.injection.MethodInvoker;
+import com.mycila.guice.ext.injection.Reflect;
+import jakarta.annotation.PreDestroy;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code @PreDestroy} methods of the types encountered by the injector, recorded from the member scan of the
+ * {@link com.mycila.guice.ext.injection.MBinder} so that destroying an instance does not need any reflection. The
+ * classes without such method, and the ones Guice never hears (AOP subclasses, scopes, ...), are looked up on first
+ * use only.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+final class PreDestroyIndex implements AnnotatedMethodListener<PreDestroy> {
+
+    private final Map<Class<?>, Methods> methods = new ConcurrentHashMap<Class<?>, Methods>();
+
+    @Override
+    public void hear(TypeLiteral<?> type, List<Method> annotated) {
+        Class<?> rawType = type.getRawType();
+        if (!methods.containsKey(rawType)) {
+            methods.put(rawType, Methods.of(rawType, annotated));
+        }
+    }
+
+    /**
+     * @return the {@code @PreDestroy} methods of the given instance
+     */
+    Methods of(Object instance) {
+        Class<?> c = instance.getClass();
+        Methods m = methods.get(c);
+        if (m == null) {
+            // concurrent callers may compute it twice: they get the same methods
+            m = Methods.of(Reflect.getTargetClass(c));
+            methods.put(c, m);
+        }
+        return m;
+    }
+
+    static final class Methods {
+        private static final MethodInvoker[] NO_INVOKERS = new MethodInvoker[0];
+        private static final Methods NONE = new Methods(null, new Method[0], NO_INVOKERS);
+
+        private final TypeLiteral<?> type;
+        private final Method[] methods;
+        // the non static methods, or null if they cannot be made accessible: the handler will report it
+        private final MethodInvoker[] invokers;
+
+        private Methods(TypeLiteral<?> type, Method[] methods, MethodInvoker[] invokers) {
+            this.type = type;
+            this.methods = methods;
+            this.invokers = invokers;
+        }
+
+        boolean isEmpty() {
+            return methods.length == 0;
+        }
+
+        void invoke(MethodHandler<PreDestroy> handler, Object instance) {
+            if (invokers != null && handler instanceof IndexedPreDestroyHandler && ((IndexedPreDestroyHandler) handler).acceptsIndexedInvokers()) {
+                for (MethodInvoker invoker : invokers)
+                    invoker.invoke(instance);
+            } else {
+                for (Method method : methods)
+                    handler.handle(type, instance, method, method.getAnnotation(PreDestroy.class));
+            }
+        }
+
+        static Methods of(Class<?> type) {
+            return of(type, Reflect.findAllAnnotatedMethods(type, PreDestroy.class));
+        }
+
+        static Methods of(Class<?> type, Iterable<Method> annotated) {
+            List<Method> list = new ArrayList<Method>();
+            for (Method method : annotated)
+                list.add(method);
+            if (list.isEmpty()) {
+                return NONE;
+            }
+            List<MethodInvoker> invokers = new ArrayList<MethodInvoker>(list.size());
+            try {
+                for (Method method : list)
+                    if (!Modifier.isStatic(method.getModifiers()))
+                        invokers.add(MethodInvoker.on(method));
+            } catch (RuntimeException e) {
+                invokers = null;
+            }
+            return new Methods(TypeLiteral.get(type), list.toArray(new Method[0]), invokers == null ? null : invokers.toArray(NO_INVOKERS));
+        }
+    }
+}
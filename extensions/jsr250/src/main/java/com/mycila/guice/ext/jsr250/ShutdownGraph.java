@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Scopes;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.HasDependencies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Destroy order of the bindings of an injector: each binding comes after the bindings depending on it, starting from
+ * the singletons. Computed once with an iterative depth-first search over binding indices, so that large injectors
+ * neither need a deep stack nor a graph of collections.
+ *
+ * @author Mathieu Carbou (mathieu.carbou@gmail.com)
+ */
+final class ShutdownGraph {
+
+    private static final int UNVISITED = 0;
+    private static final int VISITING = 1;
+    private static final int VISITED = 2;
+
+    /**
+     * Bindings in destroy order: dependants first
+     */
+    final Binding<?>[] order;
+
+    /**
+     * For each binding in {@link #order}, the number of bindings which must be destroyed before it
+     */
+    private final int[] pending;
+
+    /**
+     * Successors of the binding at position {@code i} are in {@code successors[successorStart[i]..successorStart[i+1]]}.
+     * They always have a greater position.
+     */
+    final int[] successorStart;
+    final int[] successors;
+
+    private ShutdownGraph(Binding<?>[] order, int[] pending, int[] successorStart, int[] successors) {
+        this.order = order;
+        this.pending = pending;
+        this.successorStart = successorStart;
+        this.successors = successors;
+    }
+
+    int size() {
+        return order.length;
+    }
+
+    /**
+     * @return a fresh copy of the pending counts, to be consumed while destroying
+     */
+    int[] pending() {
+        return pending.clone();
+    }
+
+    static ShutdownGraph of(Injector injector) {
+        Map<Key<?>, Binding<?>> all = injector.getAllBindings();
+        int n = all.size();
+        Binding<?>[] bindings = new Binding<?>[n];
+        Map<Key<?>, Integer> indexes = new HashMap<Key<?>, Integer>(n * 4 / 3 + 1);
+        int i = 0;
+        for (Map.Entry<Key<?>, Binding<?>> entry : all.entrySet()) {
+            bindings[i] = entry.getValue();
+            indexes.put(entry.getKey(), i++);
+        }
+
+        // dependency -> dependant edges, in compressed rows: first the source and target of each edge, then the rows
+        int[] from = new int[Math.max(16, n)];
+        int[] to = new int[from.length];
+        int edges = 0;
+        for (int dependant = 0; dependant < n; dependant++) {
+            if (bindings[dependant] instanceof HasDependencies) {
+                for (Dependency<?> dependency : ((HasDependencies) bindings[dependant]).getDependencies()) {
+                    Integer index = indexes.get(dependency.getKey());
+                    if (index != null) {
+                        if (edges == from.length) {
+                            from = Arrays.copyOf(from, edges * 2);
+                            to = Arrays.copyOf(to, edges * 2);
+                        }
+                        from[edges] = index;
+                        to[edges++] = dependant;
+                    }
+                }
+            }
+        }
+        int[] dependantStart = new int[n + 1];
+        for (int e = 0; e < edges; e++)
+            dependantStart[from[e] + 1]++;
+        for (int b = 0; b < n; b++)
+            dependantStart[b + 1] += dependantStart[b];
+        int[] dependants = new int[edges];
+        int[] cursor = Arrays.copyOf(dependantStart, n);
+        for (int e = 0; e < edges; e++)
+            dependants[cursor[from[e]]++] = to[e];
+
+        // post-order depth-first search from each singleton: a binding is placed once all its dependants are.
+        // A binding being visited is not visited again, which breaks cycles.
+        int[] state = new int[n];
+        int[] position = new int[n];
+        int[] stack = new int[n];
+        int[] order = new int[n];
+        int placed = 0;
+        for (int root = 0; root < n; root++) {
+            if (state[root] != UNVISITED || !Scopes.isSingleton(bindings[root])) continue;
+            int top = 0;
+            stack[top++] = root;
+            state[root] = VISITING;
+            cursor[root] = dependantStart[root];
+            while (top > 0) {
+                int node = stack[top - 1];
+                if (cursor[node] < dependantStart[node + 1]) {
+                    int next = dependants[cursor[node]++];
+                    if (state[next] == UNVISITED) {
+                        state[next] = VISITING;
+                        cursor[next] = dependantStart[next];
+                        stack[top++] = next;
+                    }
+                } else {
+                    top--;
+                    state[node] = VISITED;
+                    position[node] = placed;
+                    order[placed++] = node;
+                }
+            }
+        }
+
+        // a binding waits for its dependants placed before it: the other ones are part of a cycle
+        int[] pending = new int[placed];
+        int[] successorStart = new int[placed + 1];
+        for (int p = 0; p < placed; p++) {
+            int node = order[p];
+            for (int d = dependantStart[node]; d < dependantStart[node + 1]; d++) {
+                int before = position[dependants[d]];
+                if (before < p) {
+                    successorStart[before + 1]++;
+                    pending[p]++;
+                }
+            }
+        }
+        for (int p = 0; p < placed; p++)
+            successorStart[p + 1] += successorStart[p];
+        int[] successors = new int[successorStart[placed]];
+        int[] next = Arrays.copyOf(successorStart, placed);
+        for (int p = 0; p < placed; p++) {
+            int node = order[p];
+            for (int d = dependantStart[node]; d < dependantStart[node + 1]; d++) {
+                int before = position[dependants[d]];
+                if (before < p) {
+                    successors[next[before]++] = p;
+                }
+            }
+        }
+
+        Binding<?>[] ordered = new Binding<?>[placed];
+        for (int p = 0; p < placed; p++)
+            ordered[p] = bindings[order[p]];
+        return new ShutdownGraph(ordered, pending, successorStart, successors);
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.servlet.GuiceFilter;
+import com.google.inject.servlet.GuiceServletContextListener;
+import com.google.inject.servlet.RequestScoped;
+import com.google.inject.servlet.ServletModule;
+import com.google.inject.servlet.ServletScopes;
+import com.google.inject.servlet.SessionScoped;
+import com.mycila.guice.ext.closeable.CloseableModule;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class Jsr250ServletModuleTest {
+
+    @RequestScoped
+    public static class RequestBuffer {
+        boolean released;
+
+        @PreDestroy
+        void release() {
+            released = true;
+        }
+    }
+
+    @SessionScoped
+    public static class SessionCart {
+        boolean released;
+
+        @PreDestroy
+        void release() {
+            released = true;
+        }
+    }
+
+    private Injector injector;
+    private GuiceFilter filter;
+    private ServletContext servletContext;
+    private HttpSession session;
+
+    @Before
+    public void setUp() {
+        injector = Guice.createInjector(new ServletModule(), new Jsr250Module(), new Jsr250ServletModule(), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(RequestBuffer.class);
+                bind(SessionCart.class);
+            }
+        });
+        filter = injector.getInstance(GuiceFilter.class);
+        servletContext = proxy(ServletContext.class, new HashMap<String, Object>(), null);
+        session = proxy(HttpSession.class, new HashMap<String, Object>(), servletContext);
+    }
+
+    @After
+    public void tearDown() {
+        filter.destroy();
+    }
+
+    @Test
+    public void test_request_scoped_destroyed_when_request_completes() throws Exception {
+        final RequestBuffer[] buffer = new RequestBuffer[1];
+        filter.doFilter(proxy(HttpServletRequest.class, new HashMap<String, Object>(), session), proxy(HttpServletResponse.class, null, null), new FilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                buffer[0] = injector.getInstance(RequestBuffer.class);
+                assertFalse(buffer[0].released);
+            }
+        });
+        assertTrue(buffer[0].released);
+    }
+
+    @Test
+    public void test_request_scoped_destroyed_when_async_processing_completes() throws Exception {
+        final List<AsyncListener> listeners = new ArrayList<AsyncListener>();
+        final AsyncContext asyncContext = (AsyncContext) Proxy.newProxyInstance(AsyncContext.class.getClassLoader(), new Class<?>[]{AsyncContext.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("addListener")) listeners.add((AsyncListener) args[0]);
+                return null;
+            }
+        });
+        HttpServletRequest request = new HttpServletRequestWrapper(proxy(HttpServletRequest.class, new HashMap<String, Object>(), session)) {
+            @Override
+            public boolean isAsyncStarted() {
+                return true;
+            }
+
+            @Override
+            public AsyncContext getAsyncContext() {
+                return asyncContext;
+            }
+        };
+        final RequestBuffer[] buffer = new RequestBuffer[1];
+        filter.doFilter(request, proxy(HttpServletResponse.class, null, null), new FilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                buffer[0] = injector.getInstance(RequestBuffer.class);
+            }
+        });
+        assertFalse(buffer[0].released);
+        assertEquals(1, listeners.size());
+        listeners.get(0).onStartAsync(new AsyncEvent(asyncContext));
+        assertFalse(buffer[0].released);
+        assertEquals(2, listeners.size());
+        listeners.get(1).onComplete(new AsyncEvent(asyncContext));
+        assertTrue(buffer[0].released);
+    }
+
+    @Test
+    public void test_request_scoped_destroyed_when_scoped_request_ends() throws Exception {
+        final RequestBuffer[] buffer = new RequestBuffer[2];
+        Callable<RequestBuffer> callable = ServletScopes.scopeRequest(new Callable<RequestBuffer>() {
+            @Override
+            public RequestBuffer call() {
+                RequestBuffer current = injector.getInstance(RequestBuffer.class);
+                assertFalse(current.released);
+                return current;
+            }
+        }, Collections.<Key<?>, Object>emptyMap());
+        buffer[0] = callable.call();
+        assertTrue(buffer[0].released);
+        buffer[1] = callable.call();
+        assertNotSame(buffer[0], buffer[1]);
+        assertTrue(buffer[1].released);
+    }
+
+    @Test
+    public void test_session_scoped_destroyed_when_session_invalidated() throws Exception {
+        GuiceServletContextListener listener = new GuiceServletContextListener() {
+            @Override
+            protected Injector getInjector() {
+                return injector;
+            }
+        };
+        listener.contextInitialized(new ServletContextEvent(servletContext));
+        final SessionCart[] cart = new SessionCart[1];
+        filter.doFilter(proxy(HttpServletRequest.class, new HashMap<String, Object>(), session), proxy(HttpServletResponse.class, null, null), new FilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                cart[0] = injector.getInstance(SessionCart.class);
+            }
+        });
+        assertFalse(cart[0].released);
+        listener.sessionDestroyed(new HttpSessionEvent(session));
+        assertTrue(cart[0].released);
+    }
+
+    /**
+     * @param attributes backs get/setAttribute
+     * @param related    the session of a request, or the servlet context of a session
+     */
+    private static <T> T proxy(Class<T> type, final Map<String, Object> attributes, final Object related) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if (name.equals("getAttribute")) return attributes.get(args[0]);
+                if (name.equals("setAttribute")) return attributes.put((String) args[0], args[1]);
+                if (name.equals("removeAttribute")) return attributes.remove(args[0]);
+                if (name.equals("getSession") || name.equals("getServletContext")) return related;
+                if (name.equals("hashCode")) return System.identityHashCode(proxy);
+                if (name.equals("equals")) return proxy == args[0];
+                if (name.equals("toString")) return type.getSimpleName();
+                return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+            }
+        }));
+    }
+}
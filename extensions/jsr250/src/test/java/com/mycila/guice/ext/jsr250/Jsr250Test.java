@@ -34,6 +34,7 @@ import jakarta.annotation.Resource;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -260,4 +261,46 @@ public class Jsr250Test {
         }
     }
 
+    @Test
+    public void test_post_construct_on_alternating_generic_types() throws Exception {
+        Holder.calls.clear();
+        Injector injector = Guice.createInjector(Stage.PRODUCTION, new Jsr250Module(), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(String.class).toInstance("s");
+                bind(Integer.class).toInstance(1);
+            }
+        });
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 3; i++) {
+            injector.getInstance(StringHolder.class);
+            injector.getInstance(IntegerHolder.class);
+            expected.addAll(Arrays.asList("hold s", "StringHolder ready", "hold 1", "IntegerHolder ready"));
+        }
+        assertEquals(expected, Holder.calls);
+    }
+
+    static class Holder<T> {
+        static final List<String> calls = new ArrayList<String>();
+
+        @PostConstruct
+        void hold(T value) {
+            calls.add("hold " + value);
+        }
+    }
+
+    static class StringHolder extends Holder<String> {
+        @PostConstruct
+        void ready() {
+            calls.add("StringHolder ready");
+        }
+    }
+
+    static class IntegerHolder extends Holder<Integer> {
+        @PostConstruct
+        void ready() {
+            calls.add("IntegerHolder ready");
+        }
+    }
+
 }
@@ -17,7 +17,11 @@ package com.mycila.guice.ext.jsr250;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
+import com.google.inject.Key;
 import com.google.inject.Stage;
+import com.google.inject.name.Names;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.ProviderWithDependencies;
 import com.mycila.guice.ext.closeable.CloseableInjector;
 import com.mycila.guice.ext.closeable.CloseableModule;
 import org.junit.Test;
@@ -25,6 +29,12 @@ import org.junit.Test;
 import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
 
 public class MycilaDestroyOrderTest {
 
@@ -70,4 +80,54 @@ public class MycilaDestroyOrderTest {
 
         injector.close();
     }
+
+    static class Link implements ProviderWithDependencies<Object> {
+        final int index;
+        final List<Integer> destroyed;
+
+        Link(int index, List<Integer> destroyed) {
+            this.index = index;
+            this.destroyed = destroyed;
+        }
+
+        @Override
+        public Object get() {
+            return new Object();
+        }
+
+        @Override
+        public Set<Dependency<?>> getDependencies() {
+            return index == 0 ?
+                Collections.<Dependency<?>>emptySet() :
+                Collections.<Dependency<?>>singleton(Dependency.get(key(index - 1)));
+        }
+
+        @PreDestroy
+        void destroy() {
+            destroyed.add(index);
+        }
+
+        static Key<Object> key(int index) {
+            return Key.get(Object.class, Names.named("link-" + index));
+        }
+    }
+
+    @Test
+    public void testDeepDependencyChain() {
+        final int length = 20000;
+        final List<Integer> destroyed = new ArrayList<Integer>(length);
+        CloseableInjector injector = Guice.createInjector(Stage.PRODUCTION, new Jsr250Module(), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                for (int i = 0; i < length; i++)
+                    bind(Link.key(i)).toProvider(new Link(i, destroyed)).in(Singleton.class);
+            }
+        }).getInstance(CloseableInjector.class);
+
+        injector.close();
+
+        assertEquals(length, destroyed.size());
+        for (int i = 0; i < length; i++)
+            assertEquals(length - 1 - i, destroyed.get(i).intValue());
+    }
 }
@@ -17,14 +17,25 @@ package com.mycila.guice.ext.jsr250;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
+import com.google.inject.Injector;
 import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import com.google.inject.util.Modules;
 import com.mycila.guice.ext.closeable.CloseableInjector;
 import com.mycila.guice.ext.closeable.CloseableModule;
+import com.mycila.guice.ext.closeable.InjectorCloseListener;
+import com.mycila.guice.ext.closeable.ShutdownMetrics;
+import com.mycila.guice.ext.injection.MethodHandler;
 import org.junit.Test;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.inject.Singleton;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 
@@ -80,6 +91,141 @@ public class MycilaInitDestroyBindingsTest {
         assertEquals(1, component.destroyed);
     }
 
+    public static class LazySingleton extends InitDestroyCounter implements SomeInterface {
+        static int created;
+
+        public LazySingleton() {
+            created++;
+        }
+    }
+
+    @Test
+    public void testUnusedLazySingleton() {
+        CloseableInjector injector = Guice.createInjector(new Jsr250Module(), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(LazySingleton.class).in(Singleton.class);
+                bind(SomeInterface.class).to(LazySingleton.class).in(Singleton.class);
+            }
+        }).getInstance(CloseableInjector.class);
+
+        injector.close();
+        assertEquals(0, LazySingleton.created);
+    }
+
+    public static class NoPreDestroy {
+    }
+
+    @Test
+    public void testShutdownMetrics() {
+        final List<Object> destroyed = new ArrayList<Object>();
+        CloseableInjector injector = Guice.createInjector(new Jsr250Module(), new CloseableModule().withShutdownMetrics(new ShutdownMetrics() {
+            @Override
+            public void listenerNotified(Injector injector, InjectorCloseListener listener, Duration duration) {
+            }
+
+            @Override
+            public void preDestroyed(Injector injector, Object instance, Duration duration) {
+                destroyed.add(instance);
+            }
+
+            @Override
+            public void injectorClosed(Injector injector, Duration duration) {
+            }
+        }), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(TestSingleton.class);
+                bind(NoPreDestroy.class).in(Singleton.class);
+            }
+        }).getInstance(CloseableInjector.class);
+
+        TestSingleton component = injector.getInstance(TestSingleton.class);
+        injector.getInstance(NoPreDestroy.class);
+        injector.close();
+        assertEquals(Collections.singletonList(component), destroyed);
+    }
+
+    @Test
+    public void testOverriddenPreDestroyHandler() {
+        final List<String> handled = new ArrayList<String>();
+        CloseableInjector injector = Guice.createInjector(Modules.override(new Jsr250Module()).with(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<MethodHandler<PreDestroy>>() {
+                }).toInstance(new MethodHandler<PreDestroy>() {
+                    @Override
+                    public void handle(TypeLiteral<?> type, Object instance, Method method, PreDestroy annotation) {
+                        handled.add(type.getRawType().getSimpleName() + "." + method.getName());
+                    }
+                });
+            }
+        }), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(TestSingleton.class);
+            }
+        }).getInstance(CloseableInjector.class);
+
+        TestSingleton component = injector.getInstance(TestSingleton.class);
+        injector.close();
+        assertEquals(0, component.destroyed);
+        assertEquals(Collections.singletonList("TestSingleton.destroy"), handled);
+    }
+
+    @Test
+    public void testIndexedPreDestroyHandlerDecliningIndexedInvokers() {
+        final List<String> handled = new ArrayList<String>();
+        CloseableInjector injector = Guice.createInjector(Modules.override(new Jsr250Module()).with(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<MethodHandler<PreDestroy>>() {
+                }).toInstance(new IndexedPreDestroyHandler() {
+                    @Override
+                    public void handle(TypeLiteral<?> type, Object instance, Method method, PreDestroy annotation) {
+                        handled.add(type.getRawType().getSimpleName() + "." + method.getName());
+                    }
+
+                    @Override
+                    public boolean acceptsIndexedInvokers() {
+                        return false;
+                    }
+                });
+            }
+        }), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(TestSingleton.class);
+            }
+        }).getInstance(CloseableInjector.class);
+
+        TestSingleton component = injector.getInstance(TestSingleton.class);
+        injector.close();
+        assertEquals(0, component.destroyed);
+        assertEquals(Collections.singletonList("TestSingleton.destroy"), handled);
+    }
+
+    @Test
+    public void testChildInjector() {
+        CloseableInjector injector = Guice.createInjector(new Jsr250Module(), new CloseableModule()).getInstance(CloseableInjector.class);
+        CloseableInjector child = injector.createChildInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(TestSingleton.class);
+            }
+        });
+
+        TestSingleton component = child.getInstance(TestSingleton.class);
+        assertEquals(1, component.initialized);
+        assertEquals(0, component.destroyed);
+
+        child.close();
+        assertEquals(1, component.destroyed);
+
+        injector.close();
+        assertEquals(1, component.destroyed);
+    }
+
     @Test
     public void testLinkedBinding() {
         CloseableInjector injector = Guice.createInjector(new Jsr250Module(), new CloseableModule(), new AbstractModule() {
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.CreationException;
+import com.google.inject.Guice;
+import com.google.inject.Stage;
+import com.mycila.guice.ext.closeable.CloseableModule;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class ParallelPostConstructTest {
+
+    static final List<String> initialized = new CopyOnWriteArrayList<String>();
+    static CountDownLatch bothRunning;
+    static Thread initThread;
+
+    public interface Cache {
+    }
+
+    public static class SlowCache implements Cache {
+        @Parallel
+        @PostConstruct
+        void preload() throws InterruptedException {
+            Thread.sleep(100);
+            initThread = Thread.currentThread();
+            initialized.add("cache");
+        }
+    }
+
+    @Singleton
+    public static class Pool {
+        @Parallel
+        @PostConstruct
+        void prime() throws InterruptedException {
+            bothRunning.countDown();
+            assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+            initialized.add("pool");
+        }
+    }
+
+    @Singleton
+    public static class Service {
+        @Inject
+        Cache cache;
+
+        @Parallel
+        @PostConstruct
+        void warmUp() {
+            bothRunning.countDown();
+            initialized.add("service");
+        }
+    }
+
+    @Singleton
+    public static class Failing {
+        @Parallel
+        @PostConstruct
+        void init() {
+            throw new IllegalStateException("cannot preload");
+        }
+    }
+
+    @Before
+    public void reset() {
+        initialized.clear();
+        bothRunning = new CountDownLatch(2);
+        initThread = null;
+    }
+
+    @Test
+    public void test_parallel_post_construct_done_before_injector_returned() throws Exception {
+        Guice.createInjector(Stage.PRODUCTION, new Jsr250Module().withParallelPostConstruct(4), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Cache.class).to(SlowCache.class).in(Singleton.class);
+                bind(Service.class);
+                bind(Pool.class);
+            }
+        });
+        // the pool only completes if the service runs at the same time, and the service waits for its cache
+        assertEquals(3, initialized.size());
+        assertTrue(initialized.indexOf("cache") < initialized.indexOf("service"));
+        assertNotSame(Thread.currentThread(), initThread);
+    }
+
+    @Test
+    public void test_failure_fails_injector_creation() throws Exception {
+        try {
+            Guice.createInjector(Stage.PRODUCTION, new Jsr250Module().withParallelPostConstruct(2), new CloseableModule(), new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Failing.class);
+                }
+            });
+            fail();
+        } catch (CreationException e) {
+            assertTrue(e.getMessage().contains("cannot preload"));
+        }
+    }
+
+    @Test
+    public void test_runs_sequentially_when_singletons_are_lazy() throws Exception {
+        Guice.createInjector(Stage.DEVELOPMENT, new Jsr250Module().withParallelPostConstruct(4), new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Cache.class).to(SlowCache.class).in(Singleton.class);
+            }
+        }).getInstance(Cache.class);
+        assertEquals(1, initialized.size());
+        assertSame(Thread.currentThread(), initThread);
+    }
+}
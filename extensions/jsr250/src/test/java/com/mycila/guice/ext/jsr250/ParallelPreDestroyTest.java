@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mycila.guice.ext.jsr250;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Stage;
+import com.mycila.guice.ext.closeable.CloseableInjector;
+import com.mycila.guice.ext.closeable.CloseableModule;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ParallelPreDestroyTest {
+
+    static final List<String> destroyed = new CopyOnWriteArrayList<String>();
+    static CountDownLatch bothRunning;
+
+    @Singleton
+    public static class Repository {
+        @PreDestroy
+        void close() {
+            destroyed.add("repository");
+        }
+    }
+
+    @Singleton
+    public static class Service {
+        @Inject
+        Repository repository;
+
+        @PreDestroy
+        void close() {
+            destroyed.add("service");
+        }
+    }
+
+    @Singleton
+    public static class Controller {
+        @Inject
+        Service service;
+
+        @PreDestroy
+        void close() {
+            destroyed.add("controller");
+        }
+    }
+
+    @Singleton
+    public static class SlowPool1 {
+        @PreDestroy
+        void close() throws InterruptedException {
+            bothRunning.countDown();
+            if (bothRunning.await(5, TimeUnit.SECONDS))
+                destroyed.add("pool1");
+        }
+    }
+
+    @Singleton
+    public static class SlowPool2 {
+        @PreDestroy
+        void close() throws InterruptedException {
+            bothRunning.countDown();
+            if (bothRunning.await(5, TimeUnit.SECONDS))
+                destroyed.add("pool2");
+        }
+    }
+
+    @Singleton
+    public static class Hung {
+        @Inject
+        Repository repository;
+
+        @PreDestroy
+        void close() throws InterruptedException {
+            Thread.sleep(60000);
+        }
+    }
+
+    static volatile boolean released;
+
+    @Singleton
+    public static class Stubborn {
+        @Inject
+        Repository repository;
+
+        @PreDestroy
+        void close() {
+            // ignores interruptions
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!released && System.nanoTime() < end) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+    }
+
+    @Singleton
+    public static class Independent {
+        @PreDestroy
+        void close() {
+            destroyed.add("independent");
+        }
+    }
+
+    @Test
+    public void test_dependants_destroyed_first() {
+        destroyed.clear();
+        close(new Jsr250Module().withParallelPreDestroy(4), Repository.class, Service.class, Controller.class);
+        assertEquals("[controller, service, repository]", destroyed.toString());
+    }
+
+    @Test
+    public void test_independent_singletons_destroyed_concurrently() {
+        destroyed.clear();
+        bothRunning = new CountDownLatch(2);
+        close(new Jsr250Module().withParallelPreDestroy(2), SlowPool1.class, SlowPool2.class);
+        assertTrue(destroyed.toString(), destroyed.contains("pool1") && destroyed.contains("pool2"));
+    }
+
+    @Test
+    public void test_hung_destroy_skipped_after_timeout() {
+        destroyed.clear();
+        long start = System.nanoTime();
+        close(new Jsr250Module().withPreDestroyTimeout(200, TimeUnit.MILLISECONDS), Repository.class, Hung.class);
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        assertEquals("[repository]", destroyed.toString());
+    }
+
+    @Test
+    public void test_destroy_continues_after_a_destroy_ignoring_interruptions() {
+        destroyed.clear();
+        released = false;
+        try {
+            long start = System.nanoTime();
+            close(new Jsr250Module().withPreDestroyTimeout(200, TimeUnit.MILLISECONDS), Stubborn.class, Repository.class, Independent.class);
+            assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 4);
+            assertTrue(destroyed.toString(), destroyed.contains("repository") && destroyed.contains("independent"));
+            assertEquals(2, destroyed.size());
+        } finally {
+            released = true;
+        }
+    }
+
+    private static void close(Jsr250Module module, final Class<?>... types) {
+        Guice.createInjector(Stage.PRODUCTION, module, new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                for (Class<?> type : types)
+                    bind(type);
+            }
+        }).getInstance(CloseableInjector.class).close();
+    }
+}
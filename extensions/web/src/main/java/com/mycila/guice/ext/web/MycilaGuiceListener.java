@@ -22,16 +22,37 @@ import com.google.inject.Stage;
 import com.google.inject.servlet.GuiceServletContextListener;
 import com.google.inject.util.Modules;
 import com.mycila.guice.ext.closeable.CloseableInjector;
+import com.mycila.guice.ext.closeable.InjectorCloseListener;
 import com.mycila.guice.ext.service.ServiceModule;
 
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletContextEvent;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
+ * Closes the injector when the web application is undeployed. Its {@link InjectorCloseListener}s
+ * are notified one after the other, or concurrently (see {@link CloseableInjector#closeAsync()}) if
+ * the context parameter {@value #CLOSE_CONCURRENTLY} is {@code true}. In that case, set the context
+ * parameter {@value #CLOSE_TIMEOUT} to a number of milliseconds to not wait longer for them.
+ *
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  * date 2013-01-30
  */
 public class MycilaGuiceListener extends GuiceServletContextListener {
 
+    public static final String CLOSE_CONCURRENTLY = "mycila.guice.closeConcurrently";
+    public static final String CLOSE_TIMEOUT = "mycila.guice.closeTimeout";
+
+    private static final Logger LOGGER = Logger.getLogger(MycilaGuiceListener.class.getName());
+
     private final Module[] modules;
 
     public MycilaGuiceListener() {
@@ -49,11 +70,64 @@ public class MycilaGuiceListener extends GuiceServletContextListener {
 
     @Override
     public void contextDestroyed(ServletContextEvent servletContextEvent) {
-        Injector injector = (Injector) servletContextEvent.getServletContext().getAttribute(Injector.class.getName());
+        ServletContext servletContext = servletContextEvent.getServletContext();
+        Injector injector = (Injector) servletContext.getAttribute(Injector.class.getName());
         if (injector != null) {
-            injector.getInstance(CloseableInjector.class).close();
+            CloseableInjector closeable = injector.getInstance(CloseableInjector.class);
+            String concurrently = servletContext.getInitParameter(CLOSE_CONCURRENTLY);
+            if (concurrently != null && Boolean.parseBoolean(concurrently.trim())) {
+                closeConcurrently(closeable, closeTimeout(servletContext));
+            } else {
+                closeable.close();
+            }
         }
         super.contextDestroyed(servletContextEvent);
     }
 
+    /**
+     * @param timeout the maximum number of milliseconds to wait for the listeners, or -1 to wait as long as they take
+     */
+    private static void closeConcurrently(CloseableInjector injector, long timeout) {
+        CompletableFuture<Map<InjectorCloseListener, Duration>> closing = injector.closeAsync();
+        try {
+            Map<?, Duration> durations = timeout < 0 ? closing.join() : closing.get(timeout, TimeUnit.MILLISECONDS);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Injector closed: " + durations);
+            }
+        } catch (TimeoutException e) {
+            LOGGER.warning("Injector still closing after " + timeout + " ms: not waiting for it anymore");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * @return the value of the {@value #CLOSE_TIMEOUT} context parameter, or -1 if it is not set or invalid
+     */
+    private static long closeTimeout(ServletContext servletContext) {
+        String timeout = servletContext.getInitParameter(CLOSE_TIMEOUT);
+        if (timeout == null) {
+            return -1;
+        }
+        try {
+            long millis = Long.parseLong(timeout.trim());
+            if (millis >= 0) {
+                return millis;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        LOGGER.warning("Invalid " + CLOSE_TIMEOUT + " context parameter: '" + timeout + "' is not a number of milliseconds: waiting for the injector to close");
+        return -1;
+    }
+
+    private static RuntimeException rethrow(Throwable failure) {
+        if (failure instanceof Error) throw (Error) failure;
+        return failure instanceof RuntimeException ? (RuntimeException) failure : new IllegalStateException(failure);
+    }
+
 }
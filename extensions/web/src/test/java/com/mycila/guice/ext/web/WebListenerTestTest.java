@@ -15,13 +15,32 @@
  */
 package com.mycila.guice.ext.web;
 
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.mycila.guice.ext.closeable.CloseableModule;
+import com.mycila.guice.ext.closeable.InjectorCloseListener;
 import com.ovea.tajin.server.Container;
 import com.ovea.tajin.server.ContainerConfiguration;
 import com.ovea.tajin.server.Server;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import jakarta.inject.Singleton;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * @author Mathieu Carbou (mathieu.carbou@gmail.com)
  * date 2013-07-22
@@ -39,4 +58,71 @@ public final class WebListenerTestTest {
         c.stop();
     }
 
+    @Test
+    public void test_listeners_notified_sequentially_by_default() throws Exception {
+        Closing.threads.clear();
+        new MycilaGuiceListener().contextDestroyed(destroyed(Collections.<String, String>emptyMap()));
+        Assert.assertEquals(Arrays.asList(Thread.currentThread().getName()), Closing.threads);
+    }
+
+    @Test
+    public void test_listeners_notified_concurrently_on_demand() throws Exception {
+        Closing.threads.clear();
+        Map<String, String> params = new HashMap<String, String>();
+        params.put(MycilaGuiceListener.CLOSE_CONCURRENTLY, "true");
+        params.put(MycilaGuiceListener.CLOSE_TIMEOUT, "10000");
+        new MycilaGuiceListener().contextDestroyed(destroyed(params));
+        Assert.assertEquals(1, Closing.threads.size());
+        Assert.assertNotEquals(Thread.currentThread().getName(), Closing.threads.get(0));
+    }
+
+    @Test
+    public void test_invalid_close_timeout_waits_for_the_listeners() throws Exception {
+        for (String timeout : Arrays.asList("soon", "-1")) {
+            Closing.threads.clear();
+            Map<String, String> params = new HashMap<String, String>();
+            params.put(MycilaGuiceListener.CLOSE_CONCURRENTLY, "true");
+            params.put(MycilaGuiceListener.CLOSE_TIMEOUT, timeout);
+            new MycilaGuiceListener().contextDestroyed(destroyed(params));
+            Assert.assertEquals(1, Closing.threads.size());
+        }
+    }
+
+    private static ServletContextEvent destroyed(final Map<String, String> params) {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        Injector injector = Guice.createInjector(new CloseableModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Closing.class).in(Singleton.class);
+            }
+        });
+        injector.getInstance(Closing.class);
+        attributes.put(Injector.class.getName(), injector);
+        ServletContext servletContext = (ServletContext) Proxy.newProxyInstance(WebListenerTestTest.class.getClassLoader(), new Class<?>[]{ServletContext.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getInitParameter")) {
+                    return params.get(args[0]);
+                }
+                if (method.getName().equals("getAttribute")) {
+                    return attributes.get(args[0]);
+                }
+                if (method.getName().equals("removeAttribute")) {
+                    return attributes.remove(args[0]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return new ServletContextEvent(servletContext);
+    }
+
+    static class Closing implements InjectorCloseListener {
+        static final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void onInjectorClosing() {
+            threads.add(Thread.currentThread().getName());
+        }
+    }
+
 }
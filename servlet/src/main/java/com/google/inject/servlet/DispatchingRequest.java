@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The request passed down the managed filters and to the managed servlet of a dispatch, when
+ * servlets are mapped. It routes {@link #getRequestDispatcher} to the guice-servlet servlets, and
+ * gives the servlet serving it its servlet path and path info, so that a request only needs this
+ * wrapper. It does not hold the state of the filter chain: filters may keep it.
+ *
+ * We cannot forward from a web.xml Servlet/JSP to a guice-servlet (because the filter pipeline
+ * is not called again). However, we can wrap requests with our own dispatcher to forward the
+ * *other* way. web.xml Servlets/JSPs can forward to themselves as per normal.
+ *
+ * @since 6.1
+ */
+final class DispatchingRequest extends ServletDefinition.ServletRequestView {
+    private final ManagedServletPipeline servletPipeline;
+
+    DispatchingRequest(HttpServletRequest request, ManagedServletPipeline servletPipeline) {
+        super(request);
+        this.servletPipeline = servletPipeline;
+    }
+
+    boolean dispatchesTo(ManagedServletPipeline servletPipeline) {
+        return this.servletPipeline == servletPipeline;
+    }
+
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path) {
+        final RequestDispatcher dispatcher = servletPipeline.getRequestDispatcher(path);
+
+        return (null != dispatcher) ? dispatcher : super.getRequestDispatcher(path);
+    }
+}
@@ -19,6 +19,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
 
 /**
@@ -38,20 +39,33 @@ class FilterChainInvocation implements FilterChain {
     private final FilterChain proceedingChain;
     private final ManagedServletPipeline servletPipeline;
 
+    // the indexes of the filter definitions matching the path the chain was resolved for, null if
+    // the filters are matched one at a time
+    private final int[] chain;
+    private final String path;
+
     //state variable tracks current link in filterchain
     private int index = -1;
+    private int cursor = 0;
+
+    // the last request passed down the chain, and its path when it is not the resolved one
+    private ServletRequest request;
+    private String requestPath;
 
-    public FilterChainInvocation(FilterDefinition[] filterDefinitions,
-                                 ManagedServletPipeline servletPipeline, FilterChain proceedingChain) {
+    public FilterChainInvocation(FilterDefinition[] filterDefinitions, int[] chain, String path,
+                                 ServletRequest request, ManagedServletPipeline servletPipeline, FilterChain proceedingChain) {
 
         this.filterDefinitions = filterDefinitions;
+        this.chain = chain;
+        this.path = path;
+        this.request = request;
         this.servletPipeline = servletPipeline;
         this.proceedingChain = proceedingChain;
     }
 
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse)
         throws IOException, ServletException {
-        index++;
+        index = next(servletRequest);
 
         //dispatch down the chain while there are more filters
         if (index < filterDefinitions.length) {
@@ -59,7 +73,7 @@ class FilterChainInvocation implements FilterChain {
         } else {
 
             //we've reached the end of the filterchain, let's try to dispatch to a servlet
-            final boolean serviced = servletPipeline.service(servletRequest, servletResponse);
+            final boolean serviced = servletPipeline.service(servletRequest, servletResponse, currentPath(servletRequest));
 
             //dispatch to the normal filter chain only if one of our servlets did not match
             if (!serviced) {
@@ -67,4 +81,51 @@ class FilterChainInvocation implements FilterChain {
             }
         }
     }
+
+    /**
+     * Finds the next filter to run for this request. As long as filters pass down a request with the resolved path,
+     * the matching filters are already known, if the chain was resolved. A filter forwarding a request with another
+     * path makes the following filters match against this new path.
+     */
+    private int next(ServletRequest servletRequest) {
+        if (index >= filterDefinitions.length - 1) {
+            return filterDefinitions.length;
+        }
+        if (servletRequest != request) {
+            request = servletRequest;
+            String current = pathOf((HttpServletRequest) servletRequest);
+            requestPath = path.equals(current) ? null : current;
+        }
+        if (requestPath == null && chain != null) {
+            while (cursor < chain.length && chain[cursor] <= index) {
+                cursor++;
+            }
+            return cursor < chain.length ? chain[cursor] : filterDefinitions.length;
+        }
+        String uri = null != requestPath ? requestPath : path;
+        for (int i = index + 1; i < filterDefinitions.length; i++) {
+            if (filterDefinitions[i].shouldFilter(uri)) {
+                return i;
+            }
+        }
+        return filterDefinitions.length;
+    }
+
+    /**
+     * The context-relative path of a request passed down the chain, when the chain knows it: null when no
+     * filters are mapped, since the path was not computed, and the servlet pipeline computes it.
+     */
+    private String currentPath(ServletRequest servletRequest) {
+        if (null == path) {
+            return null;
+        }
+        if (servletRequest != request) {
+            return pathOf((HttpServletRequest) servletRequest);
+        }
+        return null != requestPath ? requestPath : path;
+    }
+
+    static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
 }
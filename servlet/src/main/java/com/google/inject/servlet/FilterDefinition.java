@@ -29,7 +29,6 @@ import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
-import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -88,10 +87,14 @@ class FilterDefinition implements ProviderWithExtensionVisitor<FilterDefinition>
         }
     }
 
-    private boolean shouldFilter(String uri) {
+    boolean shouldFilter(String uri) {
         return patternMatcher.matches(uri);
     }
 
+    UriPatternMatcher getPatternMatcher() {
+        return patternMatcher;
+    }
+
     public void init(final ServletContext servletContext, Injector injector,
                      Set<Filter> initializedSoFar) throws ServletException {
 
@@ -152,21 +155,13 @@ class FilterDefinition implements ProviderWithExtensionVisitor<FilterDefinition>
         }
     }
 
+    /**
+     * Runs the filter. The chain only calls it when its pattern matches the request path.
+     */
     public void doFilter(ServletRequest servletRequest,
                          ServletResponse servletResponse, FilterChainInvocation filterChainInvocation)
         throws IOException, ServletException {
-
-        final HttpServletRequest request = (HttpServletRequest) servletRequest;
-        final String path = request.getRequestURI().substring(request.getContextPath().length());
-
-        if (shouldFilter(path)) {
-            filter.get()
-                .doFilter(servletRequest, servletResponse, filterChainInvocation);
-
-        } else {
-            //otherwise proceed down chain anyway
-            filterChainInvocation.doFilter(servletRequest, servletResponse);
-        }
+        filter.get().doFilter(servletRequest, servletResponse, filterChainInvocation);
     }
 
     //VisibleForTesting
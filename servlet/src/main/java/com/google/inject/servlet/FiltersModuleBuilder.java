@@ -59,6 +59,10 @@ class FiltersModuleBuilder extends AbstractModule {
         return new FilterKeyBindingBuilderImpl(regexes, UriPatternType.REGEX);
     }
 
+    public ServletModule.FilterKeyBindingBuilder filterLinearRegex(List<String> regexes) {
+        return new FilterKeyBindingBuilderImpl(regexes, UriPatternType.LINEAR_REGEX);
+    }
+
     private static class FilterInstanceBindingEntry {
         final Key<Filter> key;
         final Filter filter;
@@ -15,6 +15,7 @@
  */
 package com.google.inject.servlet;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import com.google.inject.OutOfScopeException;
 
@@ -23,6 +24,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -59,6 +64,14 @@ public class GuiceFilter implements Filter {
     @Inject
     private final FilterPipeline injectedPipeline = null;
 
+    /**
+     * Same for the listeners notified when request scoped instances go out of scope
+     */
+    static volatile Set<ServletScopeListener> scopeListeners = ImmutableSet.of();
+
+    @Inject
+    private final Set<ServletScopeListener> injectedScopeListeners = null;
+
     /**
      * Used to inject the servlets configured via {@link ServletModule}
      */
@@ -87,9 +100,15 @@ public class GuiceFilter implements Filter {
         GuiceFilter.pipeline = pipeline;
     }
 
+    @Inject
+    static void setScopeListeners(Set<ServletScopeListener> scopeListeners) {
+        GuiceFilter.scopeListeners = scopeListeners;
+    }
+
     //VisibleForTesting
     static void reset() {
         pipeline = new DefaultFilterPipeline();
+        scopeListeners = ImmutableSet.of();
     }
 
     public void doFilter(ServletRequest servletRequest,
@@ -100,16 +119,27 @@ public class GuiceFilter implements Filter {
 
         // Prefer the injected pipeline, but fall back on the static one for web.xml users.
         FilterPipeline filterPipeline = null != injectedPipeline ? injectedPipeline : pipeline;
+        Set<ServletScopeListener> listeners = null != injectedScopeListeners ? injectedScopeListeners : scopeListeners;
 
+        // a forward or include going through this filter again is still the same request
+        Context context = new Context((HttpServletRequest) servletRequest,
+            (HttpServletResponse) servletResponse, previous, listeners);
         try {
-            localContext.set(new Context((HttpServletRequest) servletRequest,
-                (HttpServletResponse) servletResponse));
+            localContext.set(context);
 
             //dispatch across the servlet pipeline, ensuring web.xml's filterchain is honored
             filterPipeline.dispatch(servletRequest, servletResponse, filterChain);
 
         } finally {
             localContext.set(previous);
+            if (null == previous) {
+                if (context.hasScopeListeners() && servletRequest.isAsyncStarted()) {
+                    // the request scoped instances are still in use by the asynchronous processing
+                    servletRequest.getAsyncContext().addListener(context.endOnCompletion());
+                } else {
+                    context.requestEnded();
+                }
+            }
         }
     }
 
@@ -141,9 +171,80 @@ public class GuiceFilter implements Filter {
         final HttpServletRequest request;
         final HttpServletResponse response;
 
+        // the context of the outermost filter, which owns the request scoped instances
+        private final Context outermost;
+        private final Set<ServletScopeListener> listeners;
+        private List<Object> requestScoped;
+
         Context(HttpServletRequest request, HttpServletResponse response) {
+            this(request, response, null, ImmutableSet.<ServletScopeListener>of());
+        }
+
+        Context(HttpServletRequest request, HttpServletResponse response, Context previous,
+                Set<ServletScopeListener> listeners) {
             this.request = request;
             this.response = response;
+            this.outermost = null != previous ? previous.outermost : this;
+            this.listeners = listeners;
+        }
+
+        /**
+         * Records an instance created by the request scope, to be reported to the
+         * {@link ServletScopeListener}s when the request ends.
+         */
+        void requestScoped(Object instance) {
+            Context owner = outermost;
+            if (hasScopeListeners()) {
+                synchronized (owner) {
+                    if (null == owner.requestScoped) {
+                        owner.requestScoped = new ArrayList<Object>(4);
+                    }
+                    owner.requestScoped.add(instance);
+                }
+            }
+        }
+
+        boolean hasScopeListeners() {
+            return !outermost.listeners.isEmpty();
+        }
+
+        void requestEnded() {
+            List<Object> instances;
+            synchronized (this) {
+                instances = requestScoped;
+                requestScoped = null;
+            }
+            if (null != instances) {
+                // the last created first, since it may depend on the previous ones
+                for (int i = instances.size() - 1; i >= 0; i--) {
+                    outOfScope(listeners, instances.get(i));
+                }
+            }
+        }
+
+        /**
+         * @return a listener calling {@link #requestEnded()} when the asynchronous processing of the
+         *         request completes
+         */
+        AsyncListener endOnCompletion() {
+            return new AsyncListener() {
+                public void onComplete(AsyncEvent event) {
+                    requestEnded();
+                }
+
+                public void onTimeout(AsyncEvent event) {
+                    requestEnded();
+                }
+
+                public void onError(AsyncEvent event) {
+                    requestEnded();
+                }
+
+                public void onStartAsync(AsyncEvent event) {
+                    // listeners are removed when the asynchronous processing is restarted
+                    event.getAsyncContext().addListener(this);
+                }
+            };
         }
 
         HttpServletRequest getRequest() {
@@ -155,6 +256,17 @@ public class GuiceFilter implements Filter {
         }
     }
 
+    static void outOfScope(Set<ServletScopeListener> listeners, Object instance) {
+        for (ServletScopeListener listener : listeners) {
+            try {
+                listener.onOutOfScope(instance);
+            } catch (RuntimeException e) {
+                Logger.getLogger(GuiceFilter.class.getName()).log(Level.WARNING,
+                    "Error while releasing out of scope instance " + instance, e);
+            }
+        }
+    }
+
     public void init(FilterConfig filterConfig) throws ServletException {
         final ServletContext servletContext = filterConfig.getServletContext();
 
@@ -16,25 +16,38 @@
 package com.google.inject.servlet;
 
 import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
 
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
 import java.lang.ref.WeakReference;
+import java.util.Set;
 
 /**
  * As of Guice 2.0 you can still use (your subclasses of) {@code GuiceServletContextListener}
  * class as a logical place to create and configure your injector. This will ensure the injector
  * is created when the web application is deployed.
+ * <p>
+ * Registered as a listener in web.xml, it also listens to session invalidations to report the
+ * session scoped instances to the {@link ServletScopeListener}s.
  *
  * @author Kevin Bourrillion (kevinb@google.com)
  * @since 2.0
  */
 public abstract class GuiceServletContextListener
-    implements ServletContextListener {
+    implements ServletContextListener, HttpSessionListener {
 
     static final String INJECTOR_NAME = Injector.class.getName();
 
+    private static final Key<Set<ServletScopeListener>> SCOPE_LISTENERS =
+        Key.get(new TypeLiteral<Set<ServletScopeListener>>() {
+        });
+
     public void contextInitialized(ServletContextEvent servletContextEvent) {
         final ServletContext servletContext = servletContextEvent.getServletContext();
 
@@ -53,6 +66,14 @@ public abstract class GuiceServletContextListener
         servletContext.removeAttribute(INJECTOR_NAME);
     }
 
+    public void sessionDestroyed(HttpSessionEvent sessionEvent) {
+        HttpSession session = sessionEvent.getSession();
+        Injector injector = (Injector) session.getServletContext().getAttribute(INJECTOR_NAME);
+        if (null != injector && null != injector.getExistingBinding(SCOPE_LISTENERS)) {
+            ServletScopes.sessionEnded(session, injector.getInstance(SCOPE_LISTENERS));
+        }
+    }
+
     /**
      * Override this method to create (or otherwise obtain a reference to) your
      * injector.
@@ -19,6 +19,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.google.inject.multibindings.Multibinder;
 
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletRequest;
@@ -90,6 +91,9 @@ final class InternalServletModule extends AbstractModule {
         bind(FilterPipeline.class).to(ManagedFilterPipeline.class).asEagerSingleton();
 
         bind(ServletContext.class).toProvider(BackwardsCompatibleServletContextProvider.class);
+
+        // notified when request and session scoped instances go out of scope
+        Multibinder.newSetBinder(binder(), ServletScopeListener.class);
     }
 
     @Provides
@@ -0,0 +1,710 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A regular expression matched in a time linear in the length of the input whatever the pattern: instead of
+ * backtracking, all the ways the pattern can match are followed at once, one character after the other (a Pike VM), so
+ * that no URI can make the matching explode.
+ * <p>
+ * It supports the subset of the {@link Pattern} syntax which can be matched this way: literals and escaped characters,
+ * {@code .}, character classes with ranges, {@code \d \w \s} and their negations, capturing, named and non-capturing
+ * groups, alternations, greedy and lazy quantifiers including bounded ones, and the {@code ^} and {@code $} anchors.
+ * Back-references, look-arounds, possessive quantifiers, embedded flags and the other escapes are rejected. Like
+ * {@link java.util.regex.Matcher#matches()}, the whole input must match, and the start of the first group is the one
+ * a backtracking matcher would find, except when the group is repeated and its last iteration is empty (i.e.
+ * {@code (a*)*b} against {@code ab}), where it is the start of the last non-empty iteration. Characters are compared
+ * one UTF-16 unit at a time.
+ *
+ * @since 6.1
+ */
+final class LinearRegex {
+
+    static final int NO_MATCH = -2;
+
+    private static final int CHAR = 0;
+    private static final int ANY = 1;
+    private static final int CLASS = 2;
+    private static final int SPLIT = 3;
+    private static final int JMP = 4;
+    private static final int SAVE = 5;
+    private static final int BOL = 6;
+    private static final int EOL = 7;
+    private static final int MATCH = 8;
+
+    // bounded repetitions are expanded: this bounds the memory used by a pattern such as (a{1000}){1000}
+    private static final int MAX_INSTRUCTIONS = 10000;
+
+    private static final char[] DIGITS = {'0', '9'};
+    private static final char[] WORDS = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final char[] SPACES = {'\t', '\r', ' ', ' '};
+
+    private final int[] ops;
+    // the character of a CHAR, the class of a CLASS, the target of a JMP and the preferred target of a SPLIT
+    private final int[] args;
+    // the other target of a SPLIT
+    private final int[] alternatives;
+    private final CharClass[] classes;
+    private final int groupCount;
+
+    private LinearRegex(int[] ops, int[] args, int[] alternatives, CharClass[] classes, int groupCount) {
+        this.ops = ops;
+        this.args = args;
+        this.alternatives = alternatives;
+        this.classes = classes;
+        this.groupCount = groupCount;
+    }
+
+    /**
+     * @throws java.util.regex.PatternSyntaxException if the regex is invalid
+     * @throws IllegalArgumentException               if the regex uses a construct which can not be matched in linear time
+     */
+    static LinearRegex compile(String regex) {
+        // report syntax errors as java.util.regex does
+        Pattern.compile(regex);
+        Parser parser = new Parser(regex);
+        Node node = parser.parse();
+        Program program = new Program(regex);
+        node.emit(program);
+        program.emit(MATCH, 0, 0);
+        return program.build(parser.groups);
+    }
+
+    int groupCount() {
+        return groupCount;
+    }
+
+    /**
+     * @return {@link #NO_MATCH} if the input does not match, else the index where the first group starts in the input,
+     *         -1 if it did not take part in the match
+     */
+    int match(String input) {
+        int length = input.length();
+        // sized by the program, which is small: allocated per matching rather than kept by the threads of the container
+        int size = ops.length;
+        int[] pcs = new int[size];
+        int[] caps = new int[size];
+        int[] nextPcs = new int[size];
+        int[] nextCaps = new int[size];
+        // the threads added at each position of the input are marked with one generation, starting above 0
+        int[] marks = new int[size];
+        int[] stack = new int[4 * size + 2];
+        int generation = 1;
+        int count = add(pcs, caps, 0, 0, -1, 0, length, marks, generation, stack);
+        for (int pos = 0; pos < length && count > 0; pos++) {
+            char c = input.charAt(pos);
+            int nextCount = 0;
+            for (int t = 0; t < count; t++) {
+                if (accepts(pcs[t], c)) {
+                    nextCount = add(nextPcs, nextCaps, nextCount, pcs[t] + 1, caps[t], pos + 1, length, marks, generation + pos + 1, stack);
+                }
+            }
+            int[] swap = pcs;
+            pcs = nextPcs;
+            nextPcs = swap;
+            swap = caps;
+            caps = nextCaps;
+            nextCaps = swap;
+            count = nextCount;
+        }
+        // the threads are ordered by priority: the first one matching is the one a backtracking matcher would find
+        for (int t = 0; t < count; t++) {
+            if (ops[pcs[t]] == MATCH) {
+                return caps[t];
+            }
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * Adds the thread at {@code pc}, or the threads it leads to without consuming a character, to the threads to run
+     * at {@code pos}, unless a thread with a higher priority is already there.
+     */
+    private int add(int[] pcs, int[] caps, int count, int pc, int cap, int pos, int length, int[] marks, int generation, int[] stack) {
+        int top = 0;
+        stack[top++] = pc;
+        stack[top++] = cap;
+        while (top > 0) {
+            cap = stack[--top];
+            pc = stack[--top];
+            if (marks[pc] == generation) {
+                continue;
+            }
+            marks[pc] = generation;
+            switch (ops[pc]) {
+                case JMP:
+                    stack[top++] = args[pc];
+                    stack[top++] = cap;
+                    break;
+                case SPLIT:
+                    // the preferred target is pushed last, to be followed first
+                    stack[top++] = alternatives[pc];
+                    stack[top++] = cap;
+                    stack[top++] = args[pc];
+                    stack[top++] = cap;
+                    break;
+                case SAVE:
+                    stack[top++] = pc + 1;
+                    stack[top++] = pos;
+                    break;
+                case BOL:
+                    if (pos == 0) {
+                        stack[top++] = pc + 1;
+                        stack[top++] = cap;
+                    }
+                    break;
+                case EOL:
+                    if (pos == length) {
+                        stack[top++] = pc + 1;
+                        stack[top++] = cap;
+                    }
+                    break;
+                default:
+                    pcs[count] = pc;
+                    caps[count] = cap;
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean accepts(int pc, char c) {
+        switch (ops[pc]) {
+            case CHAR:
+                return args[pc] == c;
+            case ANY:
+                return c != '\n' && c != '\r' && c != '\u0085' && c != '\u2028' && c != '\u2029';
+            case CLASS:
+                return classes[args[pc]].matches(c);
+            default:
+                return false;
+        }
+    }
+
+    private static final class CharClass {
+        // sorted and disjoint inclusive bounds
+        private final char[] ranges;
+        private final boolean negated;
+
+        CharClass(char[] ranges, boolean negated) {
+            this.ranges = ranges;
+            this.negated = negated;
+        }
+
+        boolean matches(char c) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (c < ranges[i]) {
+                    break;
+                }
+                if (c <= ranges[i + 1]) {
+                    return !negated;
+                }
+            }
+            return negated;
+        }
+
+        static CharClass of(List<char[]> ranges, boolean negated) {
+            // sort and merge the ranges
+            char[][] sorted = ranges.toArray(new char[ranges.size()][]);
+            Arrays.sort(sorted, new Comparator<char[]>() {
+                @Override
+                public int compare(char[] a, char[] b) {
+                    return a[0] - b[0];
+                }
+            });
+            StringBuilder merged = new StringBuilder();
+            for (char[] range : sorted) {
+                int last = merged.length() - 1;
+                if (merged.length() > 0 && range[0] <= merged.charAt(last) + 1) {
+                    if (range[1] > merged.charAt(last)) {
+                        merged.setCharAt(last, range[1]);
+                    }
+                } else {
+                    merged.append(range[0]).append(range[1]);
+                }
+            }
+            return new CharClass(merged.toString().toCharArray(), negated);
+        }
+    }
+
+    /**
+     * Builds the instructions of a pattern.
+     */
+    private static final class Program {
+        private final String regex;
+        private final List<int[]> instructions = Lists.newArrayList();
+        private final List<CharClass> classes = Lists.newArrayList();
+
+        Program(String regex) {
+            this.regex = regex;
+        }
+
+        int pc() {
+            return instructions.size();
+        }
+
+        int emit(int op, int arg, int alternative) {
+            if (instructions.size() == MAX_INSTRUCTIONS) {
+                throw new IllegalArgumentException("Pattern too large for a linear-time regular expression: " + regex);
+            }
+            instructions.add(new int[]{op, arg, alternative});
+            return instructions.size() - 1;
+        }
+
+        void patch(int pc, int arg, int alternative) {
+            instructions.get(pc)[1] = arg;
+            instructions.get(pc)[2] = alternative;
+        }
+
+        int addClass(CharClass charClass) {
+            classes.add(charClass);
+            return classes.size() - 1;
+        }
+
+        LinearRegex build(int groupCount) {
+            int size = instructions.size();
+            int[] ops = new int[size];
+            int[] args = new int[size];
+            int[] alternatives = new int[size];
+            for (int pc = 0; pc < size; pc++) {
+                int[] instruction = instructions.get(pc);
+                ops[pc] = instruction[0];
+                args[pc] = instruction[1];
+                alternatives[pc] = instruction[2];
+            }
+            return new LinearRegex(ops, args, alternatives, classes.toArray(new CharClass[classes.size()]), groupCount);
+        }
+    }
+
+    private abstract static class Node {
+        abstract void emit(Program program);
+    }
+
+    private static final class Atom extends Node {
+        private final int op;
+        private final char c;
+        private final CharClass charClass;
+
+        Atom(int op, char c, CharClass charClass) {
+            this.op = op;
+            this.c = c;
+            this.charClass = charClass;
+        }
+
+        @Override
+        void emit(Program program) {
+            program.emit(op, op == CLASS ? program.addClass(charClass) : c, 0);
+        }
+    }
+
+    private static final class Sequence extends Node {
+        private final List<Node> nodes;
+
+        Sequence(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        void emit(Program program) {
+            for (Node node : nodes) {
+                node.emit(program);
+            }
+        }
+    }
+
+    private static final class Alternation extends Node {
+        private final List<Node> nodes;
+
+        Alternation(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        void emit(Program program) {
+            List<Integer> jumps = Lists.newArrayList();
+            for (int i = 0; i < nodes.size() - 1; i++) {
+                int split = program.emit(SPLIT, 0, 0);
+                nodes.get(i).emit(program);
+                jumps.add(program.emit(JMP, 0, 0));
+                program.patch(split, split + 1, program.pc());
+            }
+            nodes.get(nodes.size() - 1).emit(program);
+            for (int jump : jumps) {
+                program.patch(jump, program.pc(), 0);
+            }
+        }
+    }
+
+    private static final class Repetition extends Node {
+        private final Node node;
+        private final int min;
+        private final int max;
+        private final boolean greedy;
+
+        Repetition(Node node, int min, int max, boolean greedy) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+            this.greedy = greedy;
+        }
+
+        @Override
+        void emit(Program program) {
+            for (int i = 0; i < min; i++) {
+                node.emit(program);
+            }
+            if (max < 0) {
+                int split = program.emit(SPLIT, 0, 0);
+                node.emit(program);
+                program.emit(JMP, split, 0);
+                patch(program, split);
+            } else {
+                List<Integer> splits = Lists.newArrayList();
+                for (int i = min; i < max; i++) {
+                    splits.add(program.emit(SPLIT, 0, 0));
+                    node.emit(program);
+                }
+                for (int split : splits) {
+                    patch(program, split);
+                }
+            }
+        }
+
+        private void patch(Program program, int split) {
+            if (greedy) {
+                program.patch(split, split + 1, program.pc());
+            } else {
+                program.patch(split, program.pc(), split + 1);
+            }
+        }
+    }
+
+    private static final class Group extends Node {
+        private final Node node;
+        private final boolean first;
+
+        Group(Node node, boolean first) {
+            this.node = node;
+            this.first = first;
+        }
+
+        @Override
+        void emit(Program program) {
+            if (first) {
+                program.emit(SAVE, 0, 0);
+            }
+            node.emit(program);
+        }
+    }
+
+    private static final class Parser {
+        private final String regex;
+        private int pos;
+        private int groups;
+
+        Parser(String regex) {
+            this.regex = regex;
+        }
+
+        Node parse() {
+            Node node = alternation();
+            if (pos < regex.length()) {
+                throw unsupported();
+            }
+            return node;
+        }
+
+        private Node alternation() {
+            List<Node> nodes = Lists.newArrayList();
+            nodes.add(sequence());
+            while (peek('|')) {
+                pos++;
+                nodes.add(sequence());
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new Alternation(nodes);
+        }
+
+        private Node sequence() {
+            List<Node> nodes = Lists.newArrayList();
+            while (pos < regex.length() && !peek('|') && !peek(')')) {
+                nodes.add(repetition());
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new Sequence(nodes);
+        }
+
+        private Node repetition() {
+            Node node = atom();
+            if (pos == regex.length()) {
+                return node;
+            }
+            int min;
+            int max;
+            switch (regex.charAt(pos)) {
+                case '*':
+                    min = 0;
+                    max = -1;
+                    pos++;
+                    break;
+                case '+':
+                    min = 1;
+                    max = -1;
+                    pos++;
+                    break;
+                case '?':
+                    min = 0;
+                    max = 1;
+                    pos++;
+                    break;
+                case '{':
+                    pos++;
+                    min = number();
+                    max = min;
+                    if (peek(',')) {
+                        pos++;
+                        max = peek('}') ? -1 : number();
+                    }
+                    expect('}');
+                    break;
+                default:
+                    return node;
+            }
+            boolean greedy = true;
+            if (peek('?')) {
+                pos++;
+                greedy = false;
+            } else if (peek('+')) {
+                // possessive
+                throw unsupported();
+            }
+            if (pos < regex.length() && "*+?{".indexOf(regex.charAt(pos)) >= 0) {
+                // java.util.regex quantifies the quantified atom again
+                throw unsupported();
+            }
+            return new Repetition(node, min, max, greedy);
+        }
+
+        private Node atom() {
+            char c = regex.charAt(pos++);
+            switch (c) {
+                case '(':
+                    boolean capturing = true;
+                    if (peek('?')) {
+                        pos++;
+                        if (peek(':')) {
+                            pos++;
+                            capturing = false;
+                        } else if (peek('<') && pos + 1 < regex.length() && regex.charAt(pos + 1) != '=' && regex.charAt(pos + 1) != '!') {
+                            pos = regex.indexOf('>', pos) + 1;
+                        } else {
+                            throw unsupported();
+                        }
+                    }
+                    boolean first = capturing && ++groups == 1;
+                    Node node = alternation();
+                    expect(')');
+                    return new Group(node, first);
+                case '[':
+                    return new Atom(CLASS, c, charClass());
+                case '.':
+                    return new Atom(ANY, c, null);
+                case '^':
+                    return new Atom(BOL, c, null);
+                case '$':
+                    return new Atom(EOL, c, null);
+                case '\\':
+                    return escape();
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    // a quantifier with nothing to quantify
+                    pos--;
+                    throw unsupported();
+                default:
+                    return new Atom(CHAR, c, null);
+            }
+        }
+
+        private Node escape() {
+            char c = regex.charAt(pos++);
+            switch (c) {
+                case 'd':
+                case 'D':
+                case 'w':
+                case 'W':
+                case 's':
+                case 'S':
+                    return new Atom(CLASS, c, CharClass.of(split(ranges(Character.toLowerCase(c))), Character.isUpperCase(c)));
+                case 'Q':
+                    int end = regex.indexOf("\\E", pos);
+                    String quoted = regex.substring(pos, end < 0 ? regex.length() : end);
+                    pos = end < 0 ? regex.length() : end + 2;
+                    List<Node> nodes = Lists.newArrayList();
+                    for (int i = 0; i < quoted.length(); i++) {
+                        nodes.add(new Atom(CHAR, quoted.charAt(i), null));
+                    }
+                    return new Sequence(nodes);
+                default:
+                    return new Atom(CHAR, escaped(c), null);
+            }
+        }
+
+        private CharClass charClass() {
+            boolean negated = false;
+            if (peek('^')) {
+                pos++;
+                negated = true;
+            }
+            List<char[]> ranges = Lists.newArrayList();
+            if (peek(']')) {
+                throw unsupported();
+            }
+            while (!peek(']')) {
+                char c = regex.charAt(pos++);
+                if (c == '[' || (c == '&' && peek('&'))) {
+                    // unions and intersections
+                    throw unsupported();
+                }
+                if (c == '\\') {
+                    c = regex.charAt(pos++);
+                    if ("dDwWsS".indexOf(c) >= 0) {
+                        char[] predefined = ranges(Character.toLowerCase(c));
+                        ranges.addAll(split(Character.isUpperCase(c) ? complement(predefined) : predefined));
+                        continue;
+                    }
+                    c = escaped(c);
+                }
+                char to = c;
+                if (peek('-') && pos + 1 < regex.length() && regex.charAt(pos + 1) != ']') {
+                    pos++;
+                    to = regex.charAt(pos++);
+                    if (to == '[') {
+                        throw unsupported();
+                    }
+                    if (to == '\\') {
+                        to = escaped(regex.charAt(pos++));
+                    }
+                }
+                ranges.add(new char[]{c, to});
+            }
+            pos++;
+            return CharClass.of(ranges, negated);
+        }
+
+        /**
+         * The character designated by an escape other than a predefined class.
+         */
+        private char escaped(char c) {
+            switch (c) {
+                case 't':
+                    return '\t';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 'f':
+                    return '\f';
+                case 'a':
+                    return '\u0007';
+                case 'e':
+                    return '\u001B';
+                case 'x':
+                    return hex(2);
+                case 'u':
+                    return hex(4);
+                default:
+                    if (Character.isLetterOrDigit(c)) {
+                        // boundaries, back-references, unicode properties...
+                        throw unsupported();
+                    }
+                    return c;
+            }
+        }
+
+        private char hex(int digits) {
+            if (peek('{')) {
+                throw unsupported();
+            }
+            char c = (char) Integer.parseInt(regex.substring(pos, pos + digits), 16);
+            pos += digits;
+            return c;
+        }
+
+        private int number() {
+            int start = pos;
+            while (pos < regex.length() && Character.isDigit(regex.charAt(pos))) {
+                pos++;
+            }
+            return Integer.parseInt(regex.substring(start, pos));
+        }
+
+        private boolean peek(char c) {
+            return pos < regex.length() && regex.charAt(pos) == c;
+        }
+
+        private void expect(char c) {
+            if (!peek(c)) {
+                throw unsupported();
+            }
+            pos++;
+        }
+
+        private IllegalArgumentException unsupported() {
+            return new IllegalArgumentException("Unsupported construct at index " + pos + " for a linear-time regular expression: " + regex);
+        }
+    }
+
+    private static char[] ranges(char predefined) {
+        switch (predefined) {
+            case 'd':
+                return DIGITS;
+            case 'w':
+                return WORDS;
+            default:
+                return SPACES;
+        }
+    }
+
+    private static char[] complement(char[] ranges) {
+        StringBuilder complement = new StringBuilder();
+        int from = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > from) {
+                complement.append((char) from).append((char) (ranges[i] - 1));
+            }
+            from = ranges[i + 1] + 1;
+        }
+        if (from <= Character.MAX_VALUE) {
+            complement.append((char) from).append(Character.MAX_VALUE);
+        }
+        return complement.toString().toCharArray();
+    }
+
+    private static List<char[]> split(char[] ranges) {
+        List<char[]> split = Lists.newArrayList();
+        for (int i = 0; i < ranges.length; i += 2) {
+            split.add(new char[]{ranges[i], ranges[i + 1]});
+        }
+        return split;
+    }
+}
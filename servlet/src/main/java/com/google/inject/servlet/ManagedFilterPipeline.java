@@ -15,6 +15,7 @@
  */
 package com.google.inject.servlet;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -22,9 +23,10 @@ import com.google.inject.*;
 
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletRequestWrapper;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -47,6 +49,14 @@ class ManagedFilterPipeline implements FilterPipeline {
     private static final TypeLiteral<FilterDefinition> FILTER_DEFS =
         TypeLiteral.get(FilterDefinition.class);
 
+    private static final int[] NO_FILTERS = new int[0];
+
+    // The indexes of the filter definitions matching the paths servlets are literally mapped to,
+    // resolved once: their number is bounded by the configuration, unlike the paths of requests,
+    // which may contain ids. Only worth its lookup when some filters are mapped with regular
+    // expressions, else null. The filters of the other paths are matched one at a time.
+    private final Map<String, int[]> filterChains;
+
     @Inject
     public ManagedFilterPipeline(Injector injector, ManagedServletPipeline servletPipeline,
                                  Provider<ServletContext> servletContext) {
@@ -55,6 +65,9 @@ class ManagedFilterPipeline implements FilterPipeline {
         this.servletContext = servletContext;
 
         this.filterDefinitions = collectFilterDefinitions(injector);
+        this.filterChains = hasRegexPatterns(filterDefinitions)
+            ? resolveFilterChains(filterDefinitions, servletPipeline.literalPaths())
+            : null;
     }
 
     /**
@@ -74,6 +87,37 @@ class ManagedFilterPipeline implements FilterPipeline {
         return filterDefinitions.toArray(new FilterDefinition[filterDefinitions.size()]);
     }
 
+    private static boolean hasRegexPatterns(FilterDefinition[] filterDefinitions) {
+        for (FilterDefinition filterDefinition : filterDefinitions) {
+            if (filterDefinition.getPatternMatcher().getPatternType() != UriPatternType.SERVLET) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the indexes of the filter definitions matching each path, in their order, or null if
+     * there is no path.
+     */
+    private static Map<String, int[]> resolveFilterChains(FilterDefinition[] filterDefinitions, List<String> paths) {
+        if (paths.isEmpty()) {
+            return null;
+        }
+        Map<String, int[]> chains = Maps.newHashMap();
+        int[] matching = new int[filterDefinitions.length];
+        for (String path : paths) {
+            int count = 0;
+            for (int i = 0; i < filterDefinitions.length; i++) {
+                if (filterDefinitions[i].shouldFilter(path)) {
+                    matching[count++] = i;
+                }
+            }
+            chains.put(path, Arrays.copyOf(matching, count));
+        }
+        return ImmutableMap.copyOf(chains);
+    }
+
     public synchronized void initPipeline(ServletContext servletContext)
         throws ServletException {
 
@@ -104,28 +148,32 @@ class ManagedFilterPipeline implements FilterPipeline {
             initPipeline(servletContext.get());
         }
 
+        //resolve the filters to run once for the whole chain, unless matching them is cheap
+        String path = null;
+        int[] chain = NO_FILTERS;
+        if (filterDefinitions.length > 0) {
+            path = FilterChainInvocation.pathOf((HttpServletRequest) request);
+            chain = null != filterChains ? filterChains.get(path) : null;
+        }
+
         //obtain the servlet pipeline to dispatch against
-        new FilterChainInvocation(filterDefinitions, servletPipeline, proceedingFilterChain)
-            .doFilter(withDispatcher(request, servletPipeline), response);
+        ServletRequest dispatched = withDispatcher(request, servletPipeline);
+        new FilterChainInvocation(filterDefinitions, chain, path, dispatched, servletPipeline, proceedingFilterChain)
+            .doFilter(dispatched, response);
 
     }
 
     /**
      * Used to create an proxy that dispatches either to the guice-servlet pipeline or the regular
-     * pipeline based on uri-path match. This proxy also provides minimal forwarding support.
-     *
-     * We cannot forward from a web.xml Servlet/JSP to a guice-servlet (because the filter pipeline
-     * is not called again). However, we can wrap requests with our own dispatcher to forward the
-     * *other* way. web.xml Servlets/JSPs can forward to themselves as per normal.
+     * pipeline based on uri-path match. This proxy also provides minimal forwarding support, and
+     * serves the guice-servlet servlets. A request already wrapped by this pipeline, i.e. going
+     * through a {@link GuiceFilter} again, is not wrapped twice.
      *
      * This is not a problem cuz we intend for people to migrate from web.xml to guice-servlet,
      * incrementally, but not the other way around (which, we should actively discourage).
      */
-    @SuppressWarnings({"JavaDoc", "deprecation"})
     private ServletRequest withDispatcher(ServletRequest servletRequest,
-                                          final ManagedServletPipeline servletPipeline) {
-
-        HttpServletRequest request = (HttpServletRequest) servletRequest;
+                                          ManagedServletPipeline servletPipeline) {
 
         // don't wrap the request if there are no servlets mapped. This prevents us from inserting our
         // wrapper unless it's actually going to be used. This is necessary for compatibility for apps
@@ -133,17 +181,13 @@ class ManagedFilterPipeline implements FilterPipeline {
         if (!servletPipeline.hasServletsMapped()) {
             return servletRequest;
         }
+        if (servletRequest instanceof DispatchingRequest
+            && ((DispatchingRequest) servletRequest).dispatchesTo(servletPipeline)
+            && !((DispatchingRequest) servletRequest).isServing()) {
+            return servletRequest;
+        }
 
-        //noinspection OverlyComplexAnonymousInnerClass
-        return new HttpServletRequestWrapper(request) {
-
-            @Override
-            public RequestDispatcher getRequestDispatcher(String path) {
-                final RequestDispatcher dispatcher = servletPipeline.getRequestDispatcher(path);
-
-                return (null != dispatcher) ? dispatcher : super.getRequestDispatcher(path);
-            }
-        };
+        return new DispatchingRequest((HttpServletRequest) servletRequest, servletPipeline);
     }
 
     public void destroyPipeline() {
@@ -20,6 +20,8 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.inject.*;
+import com.google.inject.servlet.UriPatternType.AbstractRegexUriPatternMatcher;
+import com.google.inject.servlet.UriPatternType.ServletStyleUriPatternMatcher;
 
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServlet;
@@ -38,12 +40,14 @@ import java.util.Set;
 @Singleton
 class ManagedServletPipeline {
     private final ServletDefinition[] servletDefinitions;
+    private final UriPatternIndex index;
     private static final TypeLiteral<ServletDefinition> SERVLET_DEFS =
         TypeLiteral.get(ServletDefinition.class);
 
     @Inject
     public ManagedServletPipeline(Injector injector) {
         this.servletDefinitions = collectServletDefinitions(injector);
+        this.index = indexPatterns(servletDefinitions);
     }
 
     boolean hasServletsMapped() {
@@ -67,6 +71,33 @@ class ManagedServletPipeline {
         return servletDefinitions.toArray(new ServletDefinition[servletDefinitions.size()]);
     }
 
+    /**
+     * Indexes the patterns of the servlets, so that finding the first one matching a request does
+     * not need to try each of them.
+     */
+    private static UriPatternIndex indexPatterns(ServletDefinition[] servletDefinitions) {
+        List<UriPatternMatcher> matchers = Lists.newArrayListWithCapacity(servletDefinitions.length);
+        for (ServletDefinition servletDefinition : servletDefinitions) {
+            matchers.add(servletDefinition.getPatternMatcher());
+        }
+        return UriPatternIndex.of(matchers);
+    }
+
+    /**
+     * Returns the paths the servlets are literally mapped to, such as {@code /login}.
+     */
+    List<String> literalPaths() {
+        List<String> paths = Lists.newArrayList();
+        for (ServletDefinition servletDefinition : servletDefinitions) {
+            UriPatternMatcher matcher = servletDefinition.getPatternMatcher();
+            if (matcher instanceof ServletStyleUriPatternMatcher
+                && ((ServletStyleUriPatternMatcher) matcher).patternKind == ServletStyleUriPatternMatcher.Kind.LITERAL) {
+                paths.add(((ServletStyleUriPatternMatcher) matcher).pattern);
+            }
+        }
+        return paths;
+    }
+
     public void init(ServletContext servletContext, Injector injector) throws ServletException {
         Set<HttpServlet> initializedSoFar
             = Sets.newSetFromMap(Maps.<HttpServlet, Boolean>newIdentityHashMap());
@@ -78,16 +109,31 @@ class ManagedServletPipeline {
 
     public boolean service(ServletRequest request, ServletResponse response)
         throws IOException, ServletException {
+        return service(request, response, null);
+    }
+
+    /**
+     * @param path the context-relative path of the request when the caller already knows it,
+     *             null to compute it from the request
+     */
+    boolean service(ServletRequest request, ServletResponse response, String path)
+        throws IOException, ServletException {
 
-        //stop at the first matching servlet and service
-        for (ServletDefinition servletDefinition : servletDefinitions) {
-            if (servletDefinition.service(request, response)) {
-                return true;
-            }
+        if (servletDefinitions.length == 0) {
+            return false;
         }
 
-        //there was no match...
-        return false;
+        //stop at the first matching servlet and service
+        if (null == path) {
+            path = FilterChainInvocation.pathOf((HttpServletRequest) request);
+        }
+        long match = index.match(path);
+        if (match == UriPatternIndex.NO_MATCH) {
+            //there was no match...
+            return false;
+        }
+        servletDefinitions[UriPatternIndex.position(match)].doService(request, response, path, UriPatternIndex.groupStart(match));
+        return true;
     }
 
     public void destroy() {
@@ -108,51 +154,51 @@ class ManagedServletPipeline {
         // TODO(dhanji): check servlet spec to see if the following is legal or not.
         // Need to strip query string if requested...
 
-        for (final ServletDefinition servletDefinition : servletDefinitions) {
-            if (servletDefinition.shouldServe(path)) {
-                return new RequestDispatcher() {
-                    public void forward(ServletRequest servletRequest, ServletResponse servletResponse)
-                        throws ServletException, IOException {
-                        Preconditions.checkState(!servletResponse.isCommitted(),
-                            "Response has been committed--you can only call forward before"
-                                + " committing the response (hint: don't flush buffers)");
-
-                        // clear buffer before forwarding
-                        servletResponse.resetBuffer();
-
-                        ServletRequest requestToProcess;
-                        if (servletRequest instanceof HttpServletRequest) {
-                            requestToProcess = new RequestDispatcherRequestWrapper(servletRequest, newRequestUri);
-                        } else {
-                            // This should never happen, but instead of throwing an exception
-                            // we will allow a happy case pass thru for maximum tolerance to
-                            // legacy (and internal) code.
-                            requestToProcess = servletRequest;
-                        }
-
-                        servletRequest.setAttribute(REQUEST_DISPATCHER_REQUEST, Boolean.TRUE);
-
-                        // now dispatch to the servlet
-                        try {
-                            servletDefinition.doService(requestToProcess, servletResponse);
-                        } finally {
-                            servletRequest.removeAttribute(REQUEST_DISPATCHER_REQUEST);
-                        }
+        int first = index.first(path);
+        if (first >= 0) {
+            final ServletDefinition servletDefinition = servletDefinitions[first];
+            return new RequestDispatcher() {
+                public void forward(ServletRequest servletRequest, ServletResponse servletResponse)
+                    throws ServletException, IOException {
+                    Preconditions.checkState(!servletResponse.isCommitted(),
+                        "Response has been committed--you can only call forward before"
+                            + " committing the response (hint: don't flush buffers)");
+
+                    // clear buffer before forwarding
+                    servletResponse.resetBuffer();
+
+                    ServletRequest requestToProcess;
+                    if (servletRequest instanceof HttpServletRequest) {
+                        requestToProcess = new RequestDispatcherRequestWrapper(servletRequest, newRequestUri);
+                    } else {
+                        // This should never happen, but instead of throwing an exception
+                        // we will allow a happy case pass thru for maximum tolerance to
+                        // legacy (and internal) code.
+                        requestToProcess = servletRequest;
                     }
 
-                    public void include(ServletRequest servletRequest, ServletResponse servletResponse)
-                        throws ServletException, IOException {
-                        servletRequest.setAttribute(REQUEST_DISPATCHER_REQUEST, Boolean.TRUE);
+                    servletRequest.setAttribute(REQUEST_DISPATCHER_REQUEST, Boolean.TRUE);
 
-                        // route to the target servlet
-                        try {
-                            servletDefinition.doService(servletRequest, servletResponse);
-                        } finally {
-                            servletRequest.removeAttribute(REQUEST_DISPATCHER_REQUEST);
-                        }
+                    // now dispatch to the servlet
+                    try {
+                        servletDefinition.doService(requestToProcess, servletResponse, null, AbstractRegexUriPatternMatcher.NO_MATCH);
+                    } finally {
+                        servletRequest.removeAttribute(REQUEST_DISPATCHER_REQUEST);
                     }
-                };
-            }
+                }
+
+                public void include(ServletRequest servletRequest, ServletResponse servletResponse)
+                    throws ServletException, IOException {
+                    servletRequest.setAttribute(REQUEST_DISPATCHER_REQUEST, Boolean.TRUE);
+
+                    // route to the target servlet
+                    try {
+                        servletDefinition.doService(servletRequest, servletResponse, null, AbstractRegexUriPatternMatcher.NO_MATCH);
+                    } finally {
+                        servletRequest.removeAttribute(REQUEST_DISPATCHER_REQUEST);
+                    }
+                }
+            };
         }
 
         //otherwise, can't process
@@ -22,6 +22,7 @@ import com.google.inject.Scopes;
 import com.google.inject.spi.BindingTargetVisitor;
 import com.google.inject.spi.ProviderInstanceBinding;
 import com.google.inject.spi.ProviderWithExtensionVisitor;
+import com.google.inject.servlet.UriPatternType.AbstractRegexUriPatternMatcher;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
@@ -98,6 +99,10 @@ class ServletDefinition implements ProviderWithExtensionVisitor<ServletDefinitio
         return patternMatcher.matches(uri);
     }
 
+    UriPatternMatcher getPatternMatcher() {
+        return patternMatcher;
+    }
+
     public void init(final ServletContext servletContext, Injector injector,
                      Set<HttpServlet> initializedSoFar) throws ServletException {
 
@@ -169,14 +174,22 @@ class ServletDefinition implements ProviderWithExtensionVisitor<ServletDefinitio
     public boolean service(ServletRequest servletRequest,
                            ServletResponse servletResponse) throws IOException, ServletException {
 
-        final HttpServletRequest request = (HttpServletRequest) servletRequest;
-        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        final String path = FilterChainInvocation.pathOf((HttpServletRequest) servletRequest);
 
-        final boolean serve = shouldServe(path);
+        final boolean serve;
 
         //invocations of the chain end at the first matched servlet
-        if (serve) {
-            doService(servletRequest, servletResponse);
+        if (patternMatcher instanceof AbstractRegexUriPatternMatcher) {
+            int groupStart = ((AbstractRegexUriPatternMatcher) patternMatcher).matchStart(path);
+            serve = groupStart != AbstractRegexUriPatternMatcher.NO_MATCH;
+            if (serve) {
+                doService(servletRequest, servletResponse, path, groupStart);
+            }
+        } else {
+            serve = shouldServe(path);
+            if (serve) {
+                doService(servletRequest, servletResponse, path, AbstractRegexUriPatternMatcher.NO_MATCH);
+            }
         }
 
         //return false if no servlet matched (so we can proceed down to the web.xml servlets)
@@ -185,92 +198,155 @@ class ServletDefinition implements ProviderWithExtensionVisitor<ServletDefinitio
 
     /**
      * Utility that delegates to the actual service method of the servlet wrapped with a contextual
-     * request (i.e. with correctly computed path info).
+     * request (i.e. with correctly computed path info). The {@link DispatchingRequest} of the
+     * pipeline is not wrapped: it serves this servlet itself, until the servlet returns unless it
+     * started an asynchronous processing.
      *
-     * We need to suppress deprecation coz we use HttpServletRequestWrapper, which implements
-     * deprecated API for backwards compatibility.
+     * @param requestPath the context-relative path of the request when the pipeline already
+     *                    computed it, null to compute it from the request
+     * @param groupStart  the start of the first group in {@code requestPath} when the pattern is a
+     *                    regular expression which matched it, else
+     *                    {@link AbstractRegexUriPatternMatcher#NO_MATCH}
      */
-    void doService(final ServletRequest servletRequest, ServletResponse servletResponse)
-        throws ServletException, IOException {
-
-        HttpServletRequest request = new HttpServletRequestWrapper(
-            (HttpServletRequest) servletRequest) {
-            private String path;
-            private boolean pathComputed = false;
-            //must use a boolean on the memo field, because null is a legal value (TODO no, it's not)
-
-            private boolean pathInfoComputed = false;
-            private String pathInfo;
-
-            @Override
-            public String getPathInfo() {
-                if (!isPathInfoComputed()) {
-                    int servletPathLength = getServletPath().length();
-                    pathInfo = getRequestURI().substring(getContextPath().length()).replaceAll("[/]{2,}", "/");
-                    pathInfo = pathInfo.length() > servletPathLength ? pathInfo.substring(servletPathLength) : null;
-
-                    // Corner case: when servlet path and request path match exactly (without trailing '/'),
-                    // then pathinfo is null
-                    if ("".equals(pathInfo) && servletPathLength != 0) {
-                        pathInfo = null;
-                    }
-
-                    pathInfoComputed = true;
-                }
-
-                return pathInfo;
+    void doService(ServletRequest servletRequest, ServletResponse servletResponse,
+                   String requestPath, int groupStart) throws ServletException, IOException {
+
+        // a request already serving a servlet, i.e. forwarded by it, keeps its view for this servlet
+        boolean reused = servletRequest instanceof DispatchingRequest
+            && !((DispatchingRequest) servletRequest).isServing();
+        ServletRequestView request = reused
+            ? (DispatchingRequest) servletRequest
+            : new ServletRequestView((HttpServletRequest) servletRequest);
+        request.serve(this, requestPath, groupStart);
+        try {
+            httpServlet.get().service(request, servletResponse);
+        } finally {
+            if (reused && !request.isAsyncStarted()) {
+                request.release();
             }
+        }
+    }
 
-            // NOTE(dhanji): These two are a bit of a hack to help ensure that request dipatcher-sent
-            // requests don't use the same path info that was memoized for the original request.
-            private boolean isPathInfoComputed() {
-                return pathInfoComputed
-                    && !(null != servletRequest.getAttribute(REQUEST_DISPATCHER_REQUEST));
-            }
+    /**
+     * A request giving the servlet serving it the servlet path and path info of the pattern it was
+     * mapped with. It gives the ones of the wrapped request when it serves no servlet.
+     */
+    static class ServletRequestView extends HttpServletRequestWrapper {
+        // the servlet served, null if none
+        private ServletDefinition servlet;
+        private String requestPath;
+        private int groupStart;
 
-            private boolean isPathComputed() {
-                return pathComputed
-                    && !(null != servletRequest.getAttribute(REQUEST_DISPATCHER_REQUEST));
-            }
+        private String path;
+        private boolean pathComputed = false;
+        //must use a boolean on the memo field, because null is a legal value (TODO no, it's not)
 
-            @Override
-            public String getServletPath() {
-                return computePath();
-            }
+        private boolean pathInfoComputed = false;
+        private String pathInfo;
 
-            @Override
-            public String getPathTranslated() {
-                final String info = getPathInfo();
+        ServletRequestView(HttpServletRequest request) {
+            super(request);
+        }
+
+        final void serve(ServletDefinition servlet, String requestPath, int groupStart) {
+            this.servlet = servlet;
+            this.requestPath = requestPath;
+            this.groupStart = groupStart;
+            this.pathComputed = false;
+            this.pathInfoComputed = false;
+        }
+
+        final boolean isServing() {
+            return null != servlet;
+        }
 
-                return (null == info) ? null : getRealPath(info);
+        final void release() {
+            servlet = null;
+            requestPath = null;
+            path = null;
+            pathInfo = null;
+        }
+
+        @Override
+        public String getPathInfo() {
+            if (null == servlet) {
+                return super.getPathInfo();
             }
+            if (!isPathInfoComputed()) {
+                int servletPathLength = getServletPath().length();
+                // a request sent by a request dispatcher has another path than the dispatched one
+                pathInfo = null != requestPath && null == getRequest().getAttribute(REQUEST_DISPATCHER_REQUEST)
+                    ? requestPath : getRequestURI().substring(getContextPath().length());
+                if (pathInfo.contains("//")) {
+                    pathInfo = pathInfo.replaceAll("[/]{2,}", "/");
+                }
+                pathInfo = pathInfo.length() > servletPathLength ? pathInfo.substring(servletPathLength) : null;
 
-            private String getRealPath(String info) {
-                try {
-                    URL resourceUrl = servletRequest.getServletContext().getResource(info);
-                    return resourceUrl != null ? Paths.get(resourceUrl.toURI()).toString() : null;
-                } catch (Exception e) {
-                    return null;
+                // Corner case: when servlet path and request path match exactly (without trailing '/'),
+                // then pathinfo is null
+                if ("".equals(pathInfo) && servletPathLength != 0) {
+                    pathInfo = null;
                 }
+
+                pathInfoComputed = true;
             }
 
-            // Memoizer pattern.
-            private String computePath() {
-                if (!isPathComputed()) {
-                    String servletPath = super.getServletPath();
-                    path = patternMatcher.extractPath(servletPath);
-                    pathComputed = true;
+            return pathInfo;
+        }
+
+        // NOTE(dhanji): These two are a bit of a hack to help ensure that request dipatcher-sent
+        // requests don't use the same path info that was memoized for the original request.
+        private boolean isPathInfoComputed() {
+            return pathInfoComputed
+                && !(null != getRequest().getAttribute(REQUEST_DISPATCHER_REQUEST));
+        }
 
-                    if (null == path) {
-                        path = servletPath;
-                    }
-                }
+        private boolean isPathComputed() {
+            return pathComputed
+                && !(null != getRequest().getAttribute(REQUEST_DISPATCHER_REQUEST));
+        }
+
+        @Override
+        public String getServletPath() {
+            return null == servlet ? super.getServletPath() : computePath();
+        }
+
+        @Override
+        public String getPathTranslated() {
+            if (null == servlet) {
+                return super.getPathTranslated();
+            }
+            final String info = getPathInfo();
+
+            return (null == info) ? null : getRealPath(info);
+        }
 
-                return path;
+        private String getRealPath(String info) {
+            try {
+                URL resourceUrl = getRequest().getServletContext().getResource(info);
+                return resourceUrl != null ? Paths.get(resourceUrl.toURI()).toString() : null;
+            } catch (Exception e) {
+                return null;
             }
-        };
+        }
 
-        httpServlet.get().service(request, servletResponse);
+        // Memoizer pattern.
+        private String computePath() {
+            if (!isPathComputed()) {
+                String servletPath = super.getServletPath();
+                // the regular expression already matched this path: no need to run it again
+                path = AbstractRegexUriPatternMatcher.NO_MATCH != groupStart && requestPath.equals(servletPath)
+                    ? AbstractRegexUriPatternMatcher.pathBefore(servletPath, groupStart)
+                    : servlet.patternMatcher.extractPath(servletPath);
+                pathComputed = true;
+
+                if (null == path) {
+                    path = servletPath;
+                }
+            }
+
+            return path;
+        }
     }
 
     String getKey() {
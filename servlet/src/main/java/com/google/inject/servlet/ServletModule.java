@@ -148,6 +148,14 @@ public class ServletModule extends AbstractModule {
      * <li>http://www.google.com/it/is_totally_ajaxian</li>
      * </ul>
      *
+     * A regular expression matched against untrusted URIs can take exponential time to fail, i.e.
+     * {@code (a+)+b} against a long run of {@code a}. {@code serveLinearRegex()} and
+     * {@code filterLinearRegex()} map regular expressions matched in linear time instead, at the
+     * cost of back-references and look-arounds:
+     * <pre>
+     *    <b>serveLinearRegex("/api/v[0-9]+/(.*)").with(MyApiServlet.class)</b>
+     * </pre>
+     *
      *
      * <h3>Initialization Parameters</h3>
      *
@@ -248,6 +256,15 @@ public class ServletModule extends AbstractModule {
         return filtersModuleBuilder.filterRegex(Lists.asList(regex, regexes));
     }
 
+    /**
+     * @param regex A Java-style regular expression, matched in linear time.
+     * @see UriPatternType#LINEAR_REGEX
+     * @since 6.1
+     */
+    protected final FilterKeyBindingBuilder filterLinearRegex(String regex, String... regexes) {
+        return filtersModuleBuilder.filterLinearRegex(Lists.asList(regex, regexes));
+    }
+
     /**
      * @param urlPattern Any Servlet-style pattern. examples: /*, /html/*, *.html, etc.
      * @since 2.0
@@ -264,6 +281,15 @@ public class ServletModule extends AbstractModule {
         return servletsModuleBuilder.serveRegex(Lists.asList(regex, regexes));
     }
 
+    /**
+     * @param regex A Java-style regular expression, matched in linear time.
+     * @see UriPatternType#LINEAR_REGEX
+     * @since 6.1
+     */
+    protected final ServletKeyBindingBuilder serveLinearRegex(String regex, String... regexes) {
+        return servletsModuleBuilder.serveLinearRegex(Lists.asList(regex, regexes));
+    }
+
     /**
      * This method only works if you are using the {@linkplain GuiceServletContextListener} to
      * create your injector. Otherwise, it returns null.
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+/**
+ * Notified when an instance created by the {@link ServletScopes#REQUEST request} or
+ * {@link ServletScopes#SESSION session} scope goes out of scope: when the outermost {@link GuiceFilter}
+ * of the request completes (or its asynchronous processing, if started), when a
+ * {@link ServletScopes#scopeRequest scoped request} callable returns, or when the session is invalidated. Bind implementations with
+ * {@code Multibinder.newSetBinder(binder(), ServletScopeListener.class).addBinding()}.
+ * <p>
+ * Session scoped instances are only reported if a {@link GuiceServletContextListener} is
+ * registered in web.xml, since it also listens to session invalidations.
+ *
+ * @since 6.1
+ */
+public interface ServletScopeListener {
+
+    /**
+     * @param instance an instance which will not be returned by its scope anymore
+     */
+    void onOutOfScope(Object instance);
+
+}
@@ -25,7 +25,12 @@ import com.google.inject.Scope;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 /**
@@ -81,7 +86,8 @@ public class ServletScopes {
                         // exception is thrown.
                     }
 
-                    HttpServletRequest request = GuiceFilter.getRequest();
+                    GuiceFilter.Context context = GuiceFilter.getContext();
+                    HttpServletRequest request = context.getRequest();
 
                     synchronized (request) {
                         Object obj = request.getAttribute(name);
@@ -93,6 +99,9 @@ public class ServletScopes {
                         if (t == null) {
                             t = creator.get();
                             request.setAttribute(name, (t != null) ? t : NullObject.INSTANCE);
+                            if (t != null) {
+                                context.requestScoped(t);
+                            }
                         }
                         return t;
                     }
@@ -117,7 +126,8 @@ public class ServletScopes {
             final String name = key.toString();
             return new Provider<T>() {
                 public T get() {
-                    HttpSession session = GuiceFilter.getRequest().getSession();
+                    GuiceFilter.Context context = GuiceFilter.getContext();
+                    HttpSession session = context.getRequest().getSession();
                     synchronized (session) {
                         Object obj = session.getAttribute(name);
                         if (NullObject.INSTANCE == obj) {
@@ -128,6 +138,9 @@ public class ServletScopes {
                         if (t == null) {
                             t = creator.get();
                             session.setAttribute(name, (t != null) ? t : NullObject.INSTANCE);
+                            if (t != null && context.hasScopeListeners()) {
+                                sessionScoped(session, name);
+                            }
                         }
                         return t;
                     }
@@ -144,6 +157,47 @@ public class ServletScopes {
         }
     };
 
+    /**
+     * Session attribute holding the names of the attributes set by the {@link #SESSION} scope,
+     * in creation order. Only maintained when there are {@link ServletScopeListener}s.
+     */
+    static final String SESSION_SCOPED_NAMES = ServletScopes.class.getName() + ".sessionScoped";
+
+    @SuppressWarnings("unchecked")
+    private static void sessionScoped(HttpSession session, String name) {
+        // a serializable set, since the session can be replicated
+        LinkedHashSet<String> names = (LinkedHashSet<String>) session.getAttribute(SESSION_SCOPED_NAMES);
+        if (names == null) {
+            names = new LinkedHashSet<String>();
+        }
+        names.add(name);
+        session.setAttribute(SESSION_SCOPED_NAMES, names);
+    }
+
+    /**
+     * Reports the instances created by the {@link #SESSION} scope in this session to the
+     * listeners, the last created first. Called when the session is invalidated.
+     */
+    @SuppressWarnings("unchecked")
+    static void sessionEnded(HttpSession session, Set<ServletScopeListener> listeners) {
+        List<Object> instances = new ArrayList<Object>();
+        synchronized (session) {
+            Set<String> names = (Set<String>) session.getAttribute(SESSION_SCOPED_NAMES);
+            if (names == null) {
+                return;
+            }
+            for (String name : names) {
+                Object instance = session.getAttribute(name);
+                if (instance != null && NullObject.INSTANCE != instance) {
+                    instances.add(instance);
+                }
+            }
+        }
+        for (int i = instances.size() - 1; i >= 0; i--) {
+            GuiceFilter.outOfScope(listeners, instances.get(i));
+        }
+    }
+
     /**
      * Wraps the given callable in a contextual callable that "continues" the
      * HTTP request in another thread. This acts as a way of transporting
@@ -230,6 +284,8 @@ public class ServletScopes {
      *                 the value.
      * @return a callable that when called will run inside the a request scope
      *         that exposes the instances in the {@code seedMap} as scoped keys.
+     *         Each call has its own request scope: apart from the seeded ones,
+     *         the instances created during a call are not kept for the next one.
      * @since 3.0
      */
     public static <T> Callable<T> scopeRequest(final Callable<T> callable,
@@ -238,7 +294,7 @@ public class ServletScopes {
             "Seed map cannot be null, try passing in Collections.emptyMap() instead.");
 
         // Copy the seed values into our local scope map.
-        final Map<String, Object> scopeMap = Maps.newHashMap();
+        final Map<String, Object> scopeMap = Maps.newLinkedHashMap();
         for (Map.Entry<Key<?>, Object> entry : seedMap.entrySet()) {
             Object value = validateAndCanonicalizeValue(entry.getKey(), entry.getValue());
             scopeMap.put(entry.getKey().toString(), value);
@@ -252,16 +308,45 @@ public class ServletScopes {
                     "A request scope is already in progress, cannot scope a new request in this thread.");
 
                 requestScopeContext.set(scopeMap);
+                int seeded = scopeMap.size();
 
                 try {
                     return callable.call();
                 } finally {
                     requestScopeContext.remove();
+                    scopedRequestEnded(scopeMap, seeded);
                 }
             }
         };
     }
 
+    /**
+     * Removes the instances created by the {@link #REQUEST} scope during a call of a
+     * {@link #scopeRequest} callable from the scope map, so that each call creates new ones
+     * whether listeners are bound or not, and reports them to the listeners, the last created
+     * first. The seeded instances, which come first in the map, are kept.
+     */
+    private static void scopedRequestEnded(Map<String, Object> scopeMap, int seeded) {
+        if (scopeMap.size() == seeded) {
+            return;
+        }
+        Set<ServletScopeListener> listeners = GuiceFilter.scopeListeners;
+        List<Object> instances = new ArrayList<Object>();
+        Iterator<Object> values = scopeMap.values().iterator();
+        for (int i = 0; values.hasNext(); i++) {
+            Object instance = values.next();
+            if (i >= seeded) {
+                values.remove();
+                if (NullObject.INSTANCE != instance && !listeners.isEmpty()) {
+                    instances.add(instance);
+                }
+            }
+        }
+        for (int i = instances.size() - 1; i >= 0; i--) {
+            GuiceFilter.outOfScope(listeners, instances.get(i));
+        }
+    }
+
     /**
      * Validates the key and object, ensuring the value matches the key type, and
      * canonicalizing null objects to the null sentinel.
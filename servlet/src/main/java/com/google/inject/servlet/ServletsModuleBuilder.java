@@ -68,6 +68,10 @@ class ServletsModuleBuilder extends AbstractModule {
         return new ServletKeyBindingBuilderImpl(regexes, UriPatternType.REGEX);
     }
 
+    public ServletModule.ServletKeyBindingBuilder serveLinearRegex(List<String> regexes) {
+        return new ServletKeyBindingBuilderImpl(regexes, UriPatternType.LINEAR_REGEX);
+    }
+
     private static class ServletInstanceBindingEntry {
         final Key<HttpServlet> key;
         final HttpServlet servlet;
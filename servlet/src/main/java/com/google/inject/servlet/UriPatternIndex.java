@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.servlet.UriPatternType.AbstractRegexUriPatternMatcher;
+import com.google.inject.servlet.UriPatternType.ServletStyleUriPatternMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the first of a list of URI patterns matching a URI without trying each pattern in turn: literal patterns are
+ * looked up in a hash map, {@code /foo/*} patterns in a trie of their prefixes and {@code *.ext} patterns in a trie
+ * of their reversed suffixes, so that matching them is linear in the length of the URI whatever the number of
+ * patterns. Regular expressions, and the patterns of unknown matchers, are tried last in their order, only if they
+ * come before the best match found so far.
+ *
+ * @since 6.1
+ */
+final class UriPatternIndex {
+
+    static final long NO_MATCH = -1L;
+
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private final Map<String, Integer> literals;
+    private final Trie prefixes;
+    private final Trie suffixes;
+    private final int[] otherIndexes;
+    private final UriPatternMatcher[] others;
+
+    private UriPatternIndex(Map<String, Integer> literals, Trie prefixes, Trie suffixes, int[] otherIndexes, UriPatternMatcher[] others) {
+        this.literals = literals;
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+        this.otherIndexes = otherIndexes;
+        this.others = others;
+    }
+
+    static UriPatternIndex of(List<UriPatternMatcher> matchers) {
+        Map<String, Integer> literals = Maps.newHashMap();
+        Trie prefixes = new Trie();
+        Trie suffixes = new Trie();
+        List<Integer> otherIndexes = Lists.newArrayList();
+        List<UriPatternMatcher> others = Lists.newArrayList();
+        for (int i = 0; i < matchers.size(); i++) {
+            UriPatternMatcher matcher = matchers.get(i);
+            if (matcher instanceof ServletStyleUriPatternMatcher) {
+                ServletStyleUriPatternMatcher servletStyle = (ServletStyleUriPatternMatcher) matcher;
+                switch (servletStyle.patternKind) {
+                    case LITERAL:
+                        if (!literals.containsKey(servletStyle.pattern)) {
+                            literals.put(servletStyle.pattern, i);
+                        }
+                        break;
+                    case PREFIX:
+                        prefixes.add(servletStyle.pattern, false, i);
+                        break;
+                    case EXTENSION:
+                        suffixes.add(servletStyle.pattern, true, i);
+                        break;
+                }
+            } else {
+                otherIndexes.add(i);
+                others.add(matcher);
+            }
+        }
+        int[] indexes = new int[otherIndexes.size()];
+        for (int i = 0; i < indexes.length; i++)
+            indexes[i] = otherIndexes.get(i);
+        return new UriPatternIndex(literals, prefixes, suffixes, indexes, others.toArray(new UriPatternMatcher[others.size()]));
+    }
+
+    /**
+     * @return the position of the first pattern matching the URI, or -1 if none matches
+     */
+    int first(String uri) {
+        long match = match(uri);
+        return match == NO_MATCH ? -1 : position(match);
+    }
+
+    /**
+     * @return {@link #NO_MATCH} if no pattern matches the URI, else the position of the first one
+     *         and, if it is a regular expression, the start of its first group in the URI, to be read
+     *         with {@link #position} and {@link #groupStart}
+     */
+    long match(String uri) {
+        if (uri == null) {
+            return NO_MATCH;
+        }
+        Integer literal = literals.get(uri);
+        int best = literal == null ? NONE : literal;
+        best = Math.min(best, prefixes.first(uri, false));
+        best = Math.min(best, suffixes.first(uri, true));
+        int start = AbstractRegexUriPatternMatcher.NO_MATCH;
+        for (int i = 0; i < others.length && otherIndexes[i] < best; i++) {
+            UriPatternMatcher other = others[i];
+            if (other instanceof AbstractRegexUriPatternMatcher) {
+                int groupStart = ((AbstractRegexUriPatternMatcher) other).matchStart(uri);
+                if (groupStart != AbstractRegexUriPatternMatcher.NO_MATCH) {
+                    best = otherIndexes[i];
+                    start = groupStart;
+                }
+            } else if (other.matches(uri)) {
+                best = otherIndexes[i];
+                start = AbstractRegexUriPatternMatcher.NO_MATCH;
+            }
+        }
+        return best == NONE ? NO_MATCH : (long) best << 32 | start & 0xFFFFFFFFL;
+    }
+
+    static int position(long match) {
+        return (int) (match >>> 32);
+    }
+
+    /**
+     * @return the start of the first group of the regular expression which matched, -1 if it did not
+     *         take part in the match, or {@link AbstractRegexUriPatternMatcher#NO_MATCH} if the pattern
+     *         which matched is not a regular expression
+     */
+    static int groupStart(long match) {
+        return (int) match;
+    }
+
+    /**
+     * A character trie keeping, on each node, the position of the first pattern ending there
+     */
+    private static final class Trie {
+        private static final char[] NO_CHARS = new char[0];
+        private static final Trie[] NO_CHILDREN = new Trie[0];
+
+        int index = NONE;
+        // sorted, for a binary search
+        char[] chars = NO_CHARS;
+        Trie[] children = NO_CHILDREN;
+
+        void add(String pattern, boolean reversed, int position) {
+            Trie node = this;
+            int length = pattern.length();
+            for (int i = 0; i < length; i++) {
+                node = node.childOrCreate(pattern.charAt(reversed ? length - 1 - i : i));
+            }
+            node.index = Math.min(node.index, position);
+        }
+
+        int first(String uri, boolean reversed) {
+            Trie node = this;
+            int best = index;
+            int length = uri.length();
+            for (int i = 0; i < length && node != null; i++) {
+                node = node.child(uri.charAt(reversed ? length - 1 - i : i));
+                if (node != null && node.index < best) {
+                    best = node.index;
+                }
+            }
+            return best;
+        }
+
+        private Trie child(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            return i < 0 ? null : children[i];
+        }
+
+        private Trie childOrCreate(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int insert = -i - 1;
+            char[] newChars = new char[chars.length + 1];
+            Trie[] newChildren = new Trie[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, insert);
+            System.arraycopy(children, 0, newChildren, 0, insert);
+            newChars[insert] = c;
+            newChildren[insert] = new Trie();
+            System.arraycopy(chars, insert, newChars, insert + 1, chars.length - insert);
+            System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+            chars = newChars;
+            children = newChildren;
+            return newChildren[insert];
+        }
+    }
+}
@@ -24,7 +24,16 @@ import java.util.regex.Pattern;
  * @since 3.0
  */
 public enum UriPatternType {
-    SERVLET, REGEX;
+    SERVLET, REGEX,
+
+    /**
+     * A regular expression matched in a time linear in the length of the URI, so that untrusted URIs
+     * can not make it backtrack catastrophically. Back-references, look-arounds, possessive quantifiers
+     * and embedded flags are not supported.
+     *
+     * @since 6.1
+     */
+    LINEAR_REGEX;
 
     static UriPatternMatcher get(UriPatternType type, String pattern) {
         switch (type) {
@@ -32,6 +41,8 @@ public enum UriPatternType {
                 return new ServletStyleUriPatternMatcher(pattern);
             case REGEX:
                 return new RegexUriPatternMatcher(pattern);
+            case LINEAR_REGEX:
+                return new LinearRegexUriPatternMatcher(pattern);
             default:
                 return null;
         }
@@ -42,19 +53,19 @@ public enum UriPatternType {
      *
      * @author dhanji@gmail.com (Dhanji R. Prasanna)
      */
-    private static class ServletStyleUriPatternMatcher implements UriPatternMatcher {
-        private final String pattern;
-        private final Kind patternKind;
+    static class ServletStyleUriPatternMatcher implements UriPatternMatcher {
+        final String pattern;
+        final Kind patternKind;
 
-        private static enum Kind {PREFIX, SUFFIX, LITERAL,}
+        static enum Kind {EXTENSION, PREFIX, LITERAL,}
 
         public ServletStyleUriPatternMatcher(String pattern) {
             if (pattern.startsWith("*")) {
                 this.pattern = pattern.substring(1);
-                this.patternKind = Kind.PREFIX;
+                this.patternKind = Kind.EXTENSION;
             } else if (pattern.endsWith("*")) {
                 this.pattern = pattern.substring(0, pattern.length() - 1);
-                this.patternKind = Kind.SUFFIX;
+                this.patternKind = Kind.PREFIX;
             } else {
                 this.pattern = pattern;
                 this.patternKind = Kind.LITERAL;
@@ -66,9 +77,9 @@ public enum UriPatternType {
                 return false;
             }
 
-            if (patternKind == Kind.PREFIX) {
+            if (patternKind == Kind.EXTENSION) {
                 return uri.endsWith(pattern);
-            } else if (patternKind == Kind.SUFFIX) {
+            } else if (patternKind == Kind.PREFIX) {
                 return uri.startsWith(pattern);
             }
 
@@ -77,9 +88,9 @@ public enum UriPatternType {
         }
 
         public String extractPath(String path) {
-            if (patternKind == Kind.PREFIX) {
+            if (patternKind == Kind.EXTENSION) {
                 return null;
-            } else if (patternKind == Kind.SUFFIX) {
+            } else if (patternKind == Kind.PREFIX) {
                 String extract = pattern;
 
                 //trim the trailing '/'
@@ -99,40 +110,146 @@ public enum UriPatternType {
         }
     }
 
+    /**
+     * Base of the regular expression matchers. A URI not starting with the literal prefix of the
+     * regular expression is rejected without running it. The start of the first group found by
+     * {@link #matchStart} can be handed to {@link #pathBefore}, so that the path of a request which
+     * just matched is extracted without running the regular expression again.
+     */
+    abstract static class AbstractRegexUriPatternMatcher implements UriPatternMatcher {
+        static final int NO_MATCH = LinearRegex.NO_MATCH;
+
+        private final String prefix;
+        private final boolean hasGroups;
+
+        AbstractRegexUriPatternMatcher(String pattern, int groupCount) {
+            this.prefix = literalPrefix(pattern);
+            this.hasGroups = groupCount >= 1;
+        }
+
+        /**
+         * @return {@link #NO_MATCH} if the uri does not match, else the start of the first group in
+         *         the uri, -1 if it did not take part in the match
+         */
+        abstract int match(String uri);
+
+        /**
+         * @return {@link #NO_MATCH} if the uri does not match, else the start of the first group in
+         *         the uri, -1 if there is none or it did not take part in the match
+         */
+        final int matchStart(String uri) {
+            if (null == uri || !uri.startsWith(prefix)) {
+                return NO_MATCH;
+            }
+            return match(uri);
+        }
+
+        public boolean matches(String uri) {
+            return matchStart(uri) != NO_MATCH;
+        }
+
+        public String extractPath(String path) {
+            return hasGroups ? pathBefore(path, matchStart(path)) : null;
+        }
+
+        /**
+         * @param start the start of the first group in the path, as returned by {@link #matchStart}
+         */
+        static String pathBefore(String path, int start) {
+            // Try to capture the everything before the regex begins to match
+            // the path. This is a rough approximation to try and get parity
+            // with the servlet style mapping where the path is a capture of
+            // the URI before the wildcard.
+            if (start >= 0 && start < path.length()) {
+                return path.substring(0, start);
+            }
+            return null;
+        }
+
+        /**
+         * Returns the characters any input matching a regular expression starts with.
+         */
+        static String literalPrefix(String regex) {
+            // an alternation may not start with the same characters
+            if (regex.indexOf('|') >= 0) {
+                return "";
+            }
+            StringBuilder prefix = new StringBuilder();
+            for (int i = 0; i < regex.length(); ) {
+                char c = regex.charAt(i);
+                int next = i + 1;
+                if (c == '\\') {
+                    if (next == regex.length() || Character.isLetterOrDigit(regex.charAt(next))) {
+                        break;
+                    }
+                    c = regex.charAt(next++);
+                } else if (".[]{}()*+?^$".indexOf(c) >= 0) {
+                    break;
+                }
+                // a quantifier applies to the last character, and a surrogate is only half of one
+                if (Character.isSurrogate(c) || next < regex.length() && "*+?{".indexOf(regex.charAt(next)) >= 0) {
+                    break;
+                }
+                prefix.append(c);
+                i = next;
+            }
+            return prefix.toString();
+        }
+    }
+
     /**
      * Matches URIs using a regular expression.
      *
      * @author dhanji@gmail.com (Dhanji R. Prasanna)
      */
-    private static class RegexUriPatternMatcher implements UriPatternMatcher {
+    private static class RegexUriPatternMatcher extends AbstractRegexUriPatternMatcher {
         private final Pattern pattern;
 
         public RegexUriPatternMatcher(String pattern) {
-            this.pattern = Pattern.compile(pattern);
+            this(Pattern.compile(pattern));
         }
 
-        public boolean matches(String uri) {
-            return null != uri && this.pattern.matcher(uri).matches();
+        private RegexUriPatternMatcher(Pattern pattern) {
+            super(pattern.pattern(), pattern.matcher("").groupCount());
+            this.pattern = pattern;
         }
 
-        public String extractPath(String path) {
-            Matcher matcher = pattern.matcher(path);
-            if (matcher.matches() && matcher.groupCount() >= 1) {
-
-                // Try to capture the everything before the regex begins to match
-                // the path. This is a rough approximation to try and get parity
-                // with the servlet style mapping where the path is a capture of
-                // the URI before the wildcard.
-                int end = matcher.start(1);
-                if (end < path.length()) {
-                    return path.substring(0, end);
-                }
+        int match(String uri) {
+            Matcher matcher = pattern.matcher(uri);
+            if (!matcher.matches()) {
+                return NO_MATCH;
             }
-            return null;
+            return matcher.groupCount() >= 1 ? matcher.start(1) : -1;
         }
 
         public UriPatternType getPatternType() {
             return UriPatternType.REGEX;
         }
     }
+
+    /**
+     * Matches URIs using a regular expression, in linear time.
+     *
+     * @since 6.1
+     */
+    private static class LinearRegexUriPatternMatcher extends AbstractRegexUriPatternMatcher {
+        private final LinearRegex regex;
+
+        public LinearRegexUriPatternMatcher(String pattern) {
+            this(pattern, LinearRegex.compile(pattern));
+        }
+
+        private LinearRegexUriPatternMatcher(String pattern, LinearRegex regex) {
+            super(pattern, regex.groupCount());
+            this.regex = regex;
+        }
+
+        int match(String uri) {
+            return regex.match(uri);
+        }
+
+        public UriPatternType getPatternType() {
+            return UriPatternType.LINEAR_REGEX;
+        }
+    }
 }
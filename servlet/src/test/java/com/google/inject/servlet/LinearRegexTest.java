@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class LinearRegexTest {
+
+    private static final String[] PATTERNS = {
+        "/api/v[0-9]+/.*", "(.)*ajax(.)*", "/a(b|c)*d", "/x/(a+)+b", "/(?:foo|bar)/([a-z]+)?", "/static/.*\\.css",
+        "^/a$", "/[^/]+/(\\d{2,3})", "/(a|ab)(c|bcd)(d*)", "(a|b)*?c", "/\\Q.*\\E(x)", "/[\\w-]+\\.(js|css)",
+        "(?<name>/[a-c]{1,2})/(.*)", "/a{3}", "/a{2,}b", "/[a\\-z]+", "/(x)?y", "/(a*?)(a*)", ".*", "", "/a+?b?",
+        "[\\D\\s]+", "/u/(\\d+)/(\\w+)", "/[.]x", "(a+|b+)*c", "/(ab|a)(bc|c)?", "/([a-z]+)/([0-9]*)", "/(a+)?(a)",
+        "/(.*)/(.*)", "/*", "/x{2}", "/x?", "/x*?", "/x{1,2}?"
+    };
+
+    private static final String ALPHABET = "/abcdxyz019.-_ ";
+
+    @Test
+    public void test_matches_like_java_util_regex() {
+        Random random = new Random(42);
+        for (String regex : PATTERNS) {
+            Pattern pattern = Pattern.compile(regex);
+            LinearRegex linear = LinearRegex.compile(regex);
+            for (int n = 0; n < 2000; n++) {
+                StringBuilder input = new StringBuilder();
+                if (random.nextBoolean()) {
+                    // a start likely to match
+                    input.append(regex.replaceAll("[^/a-z]", ""));
+                }
+                for (int i = random.nextInt(10); i > 0; i--) {
+                    input.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+                assertMatch(pattern, linear, input.toString());
+            }
+        }
+    }
+
+    @Test
+    public void test_quantifiers() {
+        for (String regex : new String[]{"/x?", "/x*", "/x+", "/x{2}", "/x{1,}", "/x{0,2}", "/x*?", "/x+?"}) {
+            for (String input : new String[]{"/", "/x", "/xx", "/xxx", "/x{2}", "/x?"}) {
+                assertMatch(Pattern.compile(regex), LinearRegex.compile(regex), input);
+            }
+        }
+    }
+
+    @Test
+    public void test_rejects_unsupported_constructs() {
+        String[] unsupported = {
+            // quantifiers of quantifiers, which java.util.regex applies to the quantified atom
+            "/x?{2}", "/x*{2}", "/x{2}{3}", "/x+?{2}",
+            // possessive
+            "/x++", "/x*+",
+            "(a)\\1", "(?=a)", "(?i)a", "\\bfoo", "[a[b]]", "\\p{L}"
+        };
+        for (String regex : unsupported) {
+            try {
+                LinearRegex.compile(regex);
+                fail(regex);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void test_rejects_dangling_quantifiers() {
+        for (String regex : new String[]{"*", "+a", "?", "{2}", "/(*)", "/a|*", "/x**", "/a{"}) {
+            try {
+                LinearRegex.compile(regex);
+                fail(regex);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void test_linear_on_pathological_input() {
+        StringBuilder input = new StringBuilder("/x/");
+        for (int i = 0; i < 5000; i++) {
+            input.append('a');
+        }
+        assertEquals(LinearRegex.NO_MATCH, LinearRegex.compile("/x/(a+)+b").match(input.append('!').toString()));
+    }
+
+    private static void assertMatch(Pattern pattern, LinearRegex linear, String input) {
+        Matcher matcher = pattern.matcher(input);
+        int expected = LinearRegex.NO_MATCH;
+        if (matcher.matches()) {
+            expected = matcher.groupCount() >= 1 ? matcher.start(1) : -1;
+        }
+        assertEquals(pattern + " against [" + input + "]", expected, linear.match(input));
+    }
+}
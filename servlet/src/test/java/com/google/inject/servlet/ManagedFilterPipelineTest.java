@@ -0,0 +1,340 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import com.google.inject.Guice;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+@RunWith(JUnit4.class)
+public class ManagedFilterPipelineTest {
+
+    private final List<String> calls = new ArrayList<String>();
+    private ManagedFilterPipeline pipeline;
+
+    class Recorder implements Filter {
+        private final String name;
+
+        Recorder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void init(FilterConfig filterConfig) {
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            calls.add(name);
+            chain.doFilter(request, response);
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    /**
+     * Passes down a request for another URI
+     */
+    class Rewrite extends Recorder {
+        private final String uri;
+
+        Rewrite(String uri) {
+            super("rewrite");
+            this.uri = uri;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            calls.add("rewrite");
+            chain.doFilter(new HttpServletRequestWrapper((HttpServletRequest) request) {
+                @Override
+                public String getRequestURI() {
+                    return uri;
+                }
+            }, response);
+        }
+    }
+
+    class PathRecorder extends HttpServlet {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+            calls.add("servlet " + request.getServletPath() + " " + request.getPathInfo());
+        }
+    }
+
+    private final FilterChain proceedingChain = new FilterChain() {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) {
+            calls.add("proceed " + ((HttpServletRequest) request).getRequestURI());
+        }
+    };
+
+    @After
+    public void tearDown() {
+        if (pipeline != null) {
+            pipeline.destroyPipeline();
+        }
+        GuiceFilter.reset();
+    }
+
+    @Test
+    public void test_matching_chain() throws Exception {
+        for (boolean regex : new boolean[]{false, true}) {
+            pipeline(regex);
+            assertCalls("/ctx/a/1.html", "a", "html", "proceed /ctx/a/1.html");
+            assertCalls("/ctx/x.html", "html", "proceed /ctx/x.html");
+            if (regex) {
+                assertCalls("/ctx/a/12", "a", "regex", "proceed /ctx/a/12");
+            } else {
+                assertCalls("/ctx/a/12", "a", "proceed /ctx/a/12");
+            }
+        }
+    }
+
+    @Test
+    public void test_chains_of_the_literal_servlet_paths() throws Exception {
+        pipeline(new ServletModule() {
+            @Override
+            protected void configureServlets() {
+                filter("/*").through(new Recorder("all"));
+                filterRegex("/s/[0-9]+").through(new Recorder("regex"));
+                filter("/s/1").through(new Rewrite("/ctx/s/y"));
+                filterRegex("/s/[a-z]+").through(new Recorder("letters"));
+                serve("/s/1", "/s/x").with(new PathRecorder());
+                serve("/s/*").with(new PathRecorder());
+            }
+        });
+        assertCalls("/ctx/s/1", "all", "regex", "rewrite", "letters", "servlet /s /y");
+        assertCalls("/ctx/s/x", "all", "letters", "servlet /s/x null");
+        assertCalls("/ctx/s/2", "all", "regex", "servlet /s /2");
+        assertCalls("/ctx/s/23", "all", "regex", "servlet /s /23");
+    }
+
+    @Test
+    public void test_non_matching_chain() throws Exception {
+        for (boolean regex : new boolean[]{false, true}) {
+            pipeline(regex);
+            assertCalls("/ctx/c", "proceed /ctx/c");
+            assertCalls("/ctx/a", "proceed /ctx/a");
+        }
+    }
+
+    @Test
+    public void test_filters_after_a_rewrite_match_the_new_uri() throws Exception {
+        for (boolean regex : new boolean[]{false, true}) {
+            pipeline(regex);
+            assertCalls("/ctx/a/rewrite", "a", "rewrite", "b", "html", "proceed /ctx/b/x.html");
+            if (regex) {
+                assertCalls("/ctx/a/rewrite/1", "a", "rewrite", "b", "html", "proceed /ctx/b/x.html");
+            }
+        }
+    }
+
+    @Test
+    public void test_request_dispatcher_forwards_to_guice_servlets() throws Exception {
+        final ServletRequest[] filtered = new ServletRequest[1];
+        pipeline(new ServletModule() {
+            @Override
+            protected void configureServlets() {
+                filter("/forward").through(new Recorder("forward") {
+                    @Override
+                    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+                        calls.add("forward");
+                        filtered[0] = request;
+                        request.getRequestDispatcher("/s/x").forward(request, response);
+                    }
+                });
+                serve("/s/*").with(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest request, HttpServletResponse response) {
+                        calls.add("servlet " + request.getRequestURI());
+                    }
+                });
+            }
+        });
+        pipeline.dispatch(ServletStubs.request("", "/forward"), ServletStubs.response(), proceedingChain);
+        assertEquals(Arrays.asList("forward", "servlet /s/x"), calls);
+
+        // a request kept by a filter does not hold the state of the chain
+        assertFalse(filtered[0] instanceof FilterChain);
+        calls.clear();
+        filtered[0].getRequestDispatcher("/s/y").forward(filtered[0], ServletStubs.response());
+        assertEquals(Arrays.asList("servlet /s/y"), calls);
+    }
+
+    @Test
+    public void test_servlet_served_the_request_passed_down_by_the_filters() throws Exception {
+        final List<HttpServletRequest> requests = new ArrayList<HttpServletRequest>();
+        pipeline(new ServletModule() {
+            @Override
+            protected void configureServlets() {
+                filter("/*").through(new Recorder("all") {
+                    @Override
+                    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+                        requests.add((HttpServletRequest) request);
+                        chain.doFilter(request, response);
+                        calls.add("after " + ((HttpServletRequest) request).getServletPath());
+                    }
+                });
+                serve("/s/*").with(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest request, HttpServletResponse response) {
+                        requests.add(request);
+                        calls.add("servlet " + request.getServletPath() + " " + request.getPathInfo());
+                    }
+                });
+            }
+        });
+        for (boolean async : new boolean[]{false, true}) {
+            calls.clear();
+            requests.clear();
+            Map<String, Object> values = new HashMap<String, Object>();
+            values.put("getContextPath", "/ctx");
+            values.put("getRequestURI", "/ctx/s/x");
+            values.put("getServletPath", "/s/x");
+            values.put("getMethod", "GET");
+            values.put("isAsyncStarted", async);
+            pipeline.dispatch(ServletStubs.proxy(HttpServletRequest.class, values), ServletStubs.response(), proceedingChain);
+            assertSame(requests.get(0), requests.get(1));
+            // the servlet keeps its view of the request while it processes it asynchronously
+            assertEquals(Arrays.asList("servlet /s /x", "after " + (async ? "/s" : "/s/x")), calls);
+        }
+    }
+
+    @Test
+    public void test_request_not_wrapped_without_servlets() throws Exception {
+        final List<ServletRequest> filtered = new ArrayList<ServletRequest>();
+        pipeline(new ServletModule() {
+            @Override
+            protected void configureServlets() {
+                filter("/*").through(new Recorder("all") {
+                    @Override
+                    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+                        filtered.add(request);
+                        chain.doFilter(request, response);
+                    }
+                });
+            }
+        });
+        HttpServletRequest request = ServletStubs.request("/ctx", "/ctx/a");
+        pipeline.dispatch(request, ServletStubs.response(), proceedingChain);
+        assertSame(request, filtered.get(0));
+        assertEquals(Arrays.asList("proceed /ctx/a"), calls);
+    }
+
+    @Test
+    public void test_servlets_get_the_path_of_the_request_passed_down() throws Exception {
+        for (final boolean last : new boolean[]{false, true}) {
+            pipeline(new ServletModule() {
+                @Override
+                protected void configureServlets() {
+                    filter("/a/*").through(new Recorder("move") {
+                        @Override
+                        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+                            calls.add("move");
+                            chain.doFilter(new HttpServletRequestWrapper((HttpServletRequest) request) {
+                                @Override
+                                public String getContextPath() {
+                                    return "/other";
+                                }
+
+                                @Override
+                                public String getRequestURI() {
+                                    return "/other/s/y";
+                                }
+                            }, response);
+                        }
+                    });
+                    if (!last) {
+                        filter("/s/*").through(new Recorder("s"));
+                    }
+                    serve("/s/*").with(new PathRecorder());
+                }
+            });
+            assertCalls("/ctx/a/x", last ? new String[]{"move", "servlet /s /y"} : new String[]{"move", "s", "servlet /s /y"});
+            assertCalls("/ctx/s/x", last ? new String[]{"servlet /s /x"} : new String[]{"s", "servlet /s /x"});
+        }
+    }
+
+    @Test
+    public void test_servlets_get_the_path_of_the_request_without_filters() throws Exception {
+        pipeline(new ServletModule() {
+            @Override
+            protected void configureServlets() {
+                serve("/s/*").with(new PathRecorder());
+            }
+        });
+        assertCalls("/ctx/s/x/y", "servlet /s /x/y");
+        assertCalls("/ctx/a", "proceed /ctx/a");
+    }
+
+    private void pipeline(final boolean regex) throws ServletException {
+        pipeline(new ServletModule() {
+            @Override
+            protected void configureServlets() {
+                filter("/a/*").through(new Recorder("a"));
+                if (regex) {
+                    filterRegex("/a/[0-9]+").through(new Recorder("regex"));
+                    filterRegex("/a/rewrite/[0-9]+").through(new Rewrite("/ctx/b/x.html"));
+                }
+                filter("/a/rewrite").through(new Rewrite("/ctx/b/x.html"));
+                filter("/b/*").through(new Recorder("b"));
+                filter("*.html").through(new Recorder("html"));
+            }
+        });
+    }
+
+    private void pipeline(ServletModule module) throws ServletException {
+        tearDown();
+        pipeline = Guice.createInjector(module).getInstance(ManagedFilterPipeline.class);
+        pipeline.initPipeline(ServletStubs.proxy(ServletContext.class, new HashMap<String, Object>()));
+    }
+
+    private void assertCalls(String uri, String... expected) throws Exception {
+        // the second time with the resolved chain
+        for (int i = 0; i < 2; i++) {
+            calls.clear();
+            pipeline.dispatch(ServletStubs.request("/ctx", uri), ServletStubs.response(), proceedingChain);
+            assertEquals(uri, Arrays.asList(expected), calls);
+        }
+    }
+}
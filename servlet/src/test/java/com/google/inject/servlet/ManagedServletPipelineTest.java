@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ManagedServletPipelineTest {
+
+    private final List<String> served = new ArrayList<String>();
+    private ManagedServletPipeline pipeline;
+
+    class Recorder extends HttpServlet {
+        private final String name;
+
+        Recorder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+            served.add(name + " " + request.getServletPath() + " " + request.getPathInfo());
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Injector injector = Guice.createInjector(new ServletModule() {
+            @Override
+            protected void configureServlets() {
+                serve("/a/b").with(new Recorder("literal"));
+                serveRegex("/a/[0-9]+").with(new Recorder("regex"));
+                serve("/a/*").with(new Recorder("a"));
+                serve("*.html").with(new Recorder("html"));
+                serve("/b/*").with(new Recorder("b"));
+                serveRegex("/c/([0-9]+)").with(new Recorder("group"));
+                serveLinearRegex("/d(/x)?").with(new Recorder("optional group"));
+            }
+        });
+        pipeline = injector.getInstance(ManagedServletPipeline.class);
+        pipeline.init(ServletStubs.proxy(ServletContext.class, new HashMap<String, Object>()), injector);
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.destroy();
+        GuiceFilter.reset();
+    }
+
+    @Test
+    public void test_first_matching_servlet_serves() throws Exception {
+        assertServed("/ctx/a/b", "literal /a/b null");
+        assertServed("/ctx/a/12", "regex /a/12 null");
+        assertServed("/ctx/a/c", "a /a /c");
+        assertServed("/ctx/a/1.html", "a /a /1.html");
+        assertServed("/ctx/b/c.html", "html /b/c.html null");
+        assertServed("/ctx/b/c/d", "b /b /c/d");
+    }
+
+    @Test
+    public void test_servlet_path_of_regex_ends_before_first_group() throws Exception {
+        assertServed("/ctx/c/42", "group /c/ 42");
+        assertServed("/ctx/d/x", "optional group /d /x");
+        assertServed("/ctx/d", "optional group /d null");
+    }
+
+    @Test
+    public void test_unmatched_request_not_served() throws Exception {
+        assertFalse(pipeline.service(ServletStubs.request("/ctx", "/ctx/c"), ServletStubs.response()));
+        assertFalse(pipeline.service(ServletStubs.request("/ctx", "/ctx/a"), ServletStubs.response()));
+        assertFalse(pipeline.service(ServletStubs.request("/ctx", "/ctx"), ServletStubs.response()));
+        assertTrue(served.isEmpty());
+    }
+
+    private void assertServed(String uri, String expected) throws Exception {
+        served.clear();
+        assertTrue(uri, pipeline.service(ServletStubs.request("/ctx", uri), ServletStubs.response()));
+        assertEquals(uri, 1, served.size());
+        assertEquals(uri, expected, served.get(0));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.multibindings.Multibinder;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(JUnit4.class)
+public class ServletScopesTest {
+
+    @After
+    public void tearDown() {
+        GuiceFilter.reset();
+    }
+
+    @Test
+    public void test_scoped_request_instances_not_kept_between_calls_without_listeners() throws Exception {
+        List<Scoped> created = callTwice(Guice.createInjector(new ServletModule()));
+        assertNotSame(created.get(0), created.get(1));
+    }
+
+    @Test
+    public void test_scoped_request_instances_not_kept_between_calls_with_listeners() throws Exception {
+        final List<Object> released = new ArrayList<Object>();
+        List<Scoped> created = callTwice(Guice.createInjector(new ServletModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                Multibinder.newSetBinder(binder(), ServletScopeListener.class).addBinding().toInstance(new ServletScopeListener() {
+                    @Override
+                    public void onOutOfScope(Object instance) {
+                        released.add(instance);
+                    }
+                });
+            }
+        }));
+        assertNotSame(created.get(0), created.get(1));
+        assertEquals(created, released);
+    }
+
+    /**
+     * @return the instances created by two calls of the same scoped callable
+     */
+    private static List<Scoped> callTwice(final Injector injector) throws Exception {
+        Seed seed = new Seed();
+        Callable<Scoped> callable = ServletScopes.scopeRequest(new Callable<Scoped>() {
+            @Override
+            public Scoped call() {
+                Scoped scoped = injector.getInstance(Scoped.class);
+                assertSame(scoped, injector.getInstance(Scoped.class));
+                return scoped;
+            }
+        }, Collections.<Key<?>, Object>singletonMap(Key.get(Seed.class), seed));
+        List<Scoped> created = Arrays.asList(callable.call(), callable.call());
+        for (Scoped scoped : created)
+            assertSame(seed, scoped.seed);
+        return created;
+    }
+
+    @RequestScoped
+    static class Seed {
+    }
+
+    @RequestScoped
+    static class Scoped {
+        @Inject
+        Seed seed;
+    }
+
+}
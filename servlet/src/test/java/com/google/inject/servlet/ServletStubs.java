@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stubs of the objects of a servlet container
+ */
+final class ServletStubs {
+
+    private ServletStubs() {
+    }
+
+    static HttpServletRequest request(String contextPath, String uri) {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("getContextPath", contextPath);
+        values.put("getRequestURI", uri);
+        values.put("getServletPath", uri.substring(contextPath.length()));
+        values.put("getMethod", "GET");
+        return proxy(HttpServletRequest.class, values);
+    }
+
+    static HttpServletResponse response() {
+        return proxy(HttpServletResponse.class, new HashMap<String, Object>());
+    }
+
+    static FilterConfig filterConfig() {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("getServletContext", proxy(ServletContext.class, new HashMap<String, Object>()));
+        return proxy(FilterConfig.class, values);
+    }
+
+    /**
+     * @param values the values returned by the methods, by name. Attributes are kept in another map.
+     */
+    static <T> T proxy(final Class<T> type, final Map<String, Object> values) {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if (name.equals("getAttribute")) return attributes.get(args[0]);
+                if (name.equals("setAttribute")) return attributes.put((String) args[0], args[1]);
+                if (name.equals("removeAttribute")) return attributes.remove(args[0]);
+                if (values.containsKey(name)) return values.get(name);
+                if (name.equals("hashCode")) return System.identityHashCode(proxy);
+                if (name.equals("equals")) return proxy == args[0];
+                if (name.equals("toString")) return type.getSimpleName() + values;
+                return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+            }
+        }));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class UriPatternIndexTest {
+
+    @Test
+    public void test_literal_patterns() {
+        List<UriPatternMatcher> matchers = servlet("/a", "/a/b", "/a");
+        assertFirst(matchers, "/a", 0);
+        assertFirst(matchers, "/a/b", 1);
+        assertFirst(matchers, "/a/", -1);
+        assertFirst(matchers, "/b", -1);
+        assertFirst(matchers, "", -1);
+        assertFirst(matchers, null, -1);
+    }
+
+    @Test
+    public void test_prefix_patterns() {
+        List<UriPatternMatcher> matchers = servlet("/a/b/*", "/a/*", "/a/b/c/*", "/*");
+        assertFirst(matchers, "/a/b/c/d", 0);
+        assertFirst(matchers, "/a/b/", 0);
+        assertFirst(matchers, "/a/x", 1);
+        assertFirst(matchers, "/a/b", 1);
+        assertFirst(matchers, "/b", 3);
+        assertFirst(matchers, "x", -1);
+    }
+
+    @Test
+    public void test_extension_patterns() {
+        List<UriPatternMatcher> matchers = servlet("*.html", "*.min.js", "*.js", "*");
+        assertFirst(matchers, "/a/index.html", 0);
+        assertFirst(matchers, "/a.min.js", 1);
+        assertFirst(matchers, "/a.js", 2);
+        assertFirst(matchers, "/a.css", 3);
+        assertFirst(matchers, "", 3);
+    }
+
+    @Test
+    public void test_first_registered_wins() {
+        List<UriPatternMatcher> matchers = servlet("*.html", "/a/*", "/a/index.html", "/a/b/*");
+        assertFirst(matchers, "/a/index.html", 0);
+        assertFirst(matchers, "/a/b/c", 1);
+        assertFirst(matchers, "/b/index.html", 0);
+        matchers = servlet("/a/index.html", "/a/*", "*.html");
+        assertFirst(matchers, "/a/index.html", 0);
+        assertFirst(matchers, "/a/b.html", 1);
+        assertFirst(matchers, "/b.html", 2);
+    }
+
+    @Test
+    public void test_regex_and_servlet_patterns() {
+        List<UriPatternMatcher> matchers = Lists.newArrayList(
+            UriPatternType.get(UriPatternType.SERVLET, "/a/b"),
+            UriPatternType.get(UriPatternType.REGEX, "/a/[0-9]+"),
+            UriPatternType.get(UriPatternType.SERVLET, "/a/*"),
+            UriPatternType.get(UriPatternType.SERVLET, "*.html"),
+            UriPatternType.get(UriPatternType.LINEAR_REGEX, "/b/[0-9]+"),
+            UriPatternType.get(UriPatternType.SERVLET, "/b/*"));
+        assertFirst(matchers, "/a/b", 0);
+        assertFirst(matchers, "/a/12", 1);
+        assertFirst(matchers, "/a/c", 2);
+        assertFirst(matchers, "/a/1.html", 2);
+        assertFirst(matchers, "/a", -1);
+        assertFirst(matchers, "/b/1.html", 3);
+        assertFirst(matchers, "/b/12", 4);
+        assertFirst(matchers, "/b/x", 5);
+        assertFirst(matchers, "/c", -1);
+    }
+
+    @Test
+    public void test_match_hands_the_group_start_of_the_regex() {
+        UriPatternIndex index = UriPatternIndex.of(Lists.newArrayList(
+            UriPatternType.get(UriPatternType.SERVLET, "/a/b"),
+            UriPatternType.get(UriPatternType.REGEX, "/a/([0-9]+)"),
+            UriPatternType.get(UriPatternType.LINEAR_REGEX, "/b(/x)?"),
+            UriPatternType.get(UriPatternType.SERVLET, "/*")));
+        assertMatch(index, "/a/b", 0, UriPatternType.AbstractRegexUriPatternMatcher.NO_MATCH);
+        assertMatch(index, "/a/12", 1, 3);
+        assertMatch(index, "/b/x", 2, 2);
+        assertMatch(index, "/b", 2, -1);
+        assertMatch(index, "/c", 3, UriPatternType.AbstractRegexUriPatternMatcher.NO_MATCH);
+        assertEquals(UriPatternIndex.NO_MATCH, UriPatternIndex.of(servlet("/a")).match("/b"));
+    }
+
+    @Test
+    public void test_same_as_linear_scan() {
+        String[] servlet = {"/a", "/a/b", "/a/*", "/a/b/*", "/b/*", "*.html", "*.js", "*b.js", "/*", "*", "/a/index.html", ""};
+        String[] regex = {"/a/.*", ".*\\.html", "/b/[a-z]+", "/(a|b)/c.*", ".*"};
+        String[] uris = {"", "/", "/a", "/a/", "/a/b", "/a/b/c", "/a/index.html", "/a/b.js", "/b/ab.js", "/b/x", "/b/1", "/c", "/a/c.html", "x.js"};
+        Random random = new Random(42);
+        for (int n = 0; n < 1000; n++) {
+            List<UriPatternMatcher> matchers = Lists.newArrayList();
+            List<String> patterns = Lists.newArrayList();
+            for (int i = random.nextInt(8); i >= 0; i--) {
+                UriPatternType type = random.nextInt(4) > 0 ? UriPatternType.SERVLET : random.nextBoolean() ? UriPatternType.REGEX : UriPatternType.LINEAR_REGEX;
+                String pattern = type == UriPatternType.SERVLET ? servlet[random.nextInt(servlet.length)] : regex[random.nextInt(regex.length)];
+                matchers.add(UriPatternType.get(type, pattern));
+                patterns.add(type + ":" + pattern);
+            }
+            UriPatternIndex index = UriPatternIndex.of(matchers);
+            for (String uri : uris) {
+                assertEquals(patterns + " " + uri, linearScan(matchers, uri), index.first(uri));
+            }
+        }
+    }
+
+    private static List<UriPatternMatcher> servlet(String... patterns) {
+        List<UriPatternMatcher> matchers = Lists.newArrayList();
+        for (String pattern : patterns) {
+            matchers.add(UriPatternType.get(UriPatternType.SERVLET, pattern));
+        }
+        return matchers;
+    }
+
+    private static int linearScan(List<UriPatternMatcher> matchers, String uri) {
+        for (int i = 0; i < matchers.size(); i++) {
+            if (matchers.get(i).matches(uri)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void assertMatch(UriPatternIndex index, String uri, int position, int groupStart) {
+        long match = index.match(uri);
+        assertEquals(uri, position, UriPatternIndex.position(match));
+        assertEquals(uri, groupStart, UriPatternIndex.groupStart(match));
+    }
+
+    private static void assertFirst(List<UriPatternMatcher> matchers, String uri, int expected) {
+        assertEquals(uri, expected, UriPatternIndex.of(matchers).first(uri));
+        if (uri != null) {
+            assertEquals(uri, expected, linearScan(matchers, uri));
+        }
+    }
+}
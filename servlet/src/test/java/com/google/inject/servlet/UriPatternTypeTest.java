@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2010-2025 Mycila (mathieu.carbou@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.inject.servlet;
+
+import com.google.inject.servlet.UriPatternType.AbstractRegexUriPatternMatcher;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class UriPatternTypeTest {
+
+    @Test
+    public void test_literal_prefix() {
+        assertPrefix("/api/v[0-9]+/.*", "/api/v");
+        assertPrefix("/a/b", "/a/b");
+        assertPrefix("", "");
+        assertPrefix(".*", "");
+        // escapes
+        assertPrefix("/a\\.b\\/c.*", "/a.b/c");
+        assertPrefix("/a\\d+", "/a");
+        assertPrefix("/a\\Q.\\E", "/a");
+        assertPrefix("/a\\", "/a");
+        // anchors
+        assertPrefix("^/a", "");
+        assertPrefix("/a$", "/a");
+        // a quantified last character is optional or repeated
+        assertPrefix("/ab*", "/a");
+        assertPrefix("/ab+", "/a");
+        assertPrefix("/ab?", "/a");
+        assertPrefix("/ab{2}", "/a");
+        assertPrefix("/a\\.?", "/a");
+        assertPrefix("/a(b)", "/a");
+        assertPrefix("/a[bc]", "/a");
+        // the branches of an alternation may start differently
+        assertPrefix("/a|/b", "");
+        assertPrefix("/a(b|c)", "");
+    }
+
+    @Test
+    public void test_literal_prefix_is_a_prefix_of_every_match() {
+        String[] regexes = {"/api/v[0-9]+/.*", "/a\\.b\\/c.*", "/ab*", "/ab?c", "/ab{0,2}", "/a\\d+"};
+        String[] uris = {"/api/v1/x", "/a.b/c", "/a", "/ab", "/abb", "/ac", "/abc", "/a12"};
+        for (String regex : regexes) {
+            for (UriPatternType type : new UriPatternType[]{UriPatternType.REGEX, UriPatternType.LINEAR_REGEX}) {
+                UriPatternMatcher matcher = UriPatternType.get(type, regex);
+                for (String uri : uris) {
+                    assertEquals(type + " " + regex + " " + uri, uri.matches(regex), matcher.matches(uri));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_extract_path_ends_before_first_group() {
+        for (UriPatternType type : new UriPatternType[]{UriPatternType.REGEX, UriPatternType.LINEAR_REGEX}) {
+            assertEquals("/a/", UriPatternType.get(type, "/a/(.*)").extractPath("/a/b"));
+            assertEquals("/a", UriPatternType.get(type, "/a(/.*)?").extractPath("/a/b"));
+        }
+    }
+
+    @Test
+    public void test_extract_path_is_null_when_no_path_precedes_a_group() {
+        for (UriPatternType type : new UriPatternType[]{UriPatternType.REGEX, UriPatternType.LINEAR_REGEX}) {
+            // the group did not take part in the match: used to throw a StringIndexOutOfBoundsException
+            assertNull(UriPatternType.get(type, "/a(/x)?").extractPath("/a"));
+            // the group is empty, at the end of the path
+            assertNull(UriPatternType.get(type, "/a(.*)").extractPath("/a"));
+            // no group, or no match
+            assertNull(UriPatternType.get(type, "/a/.*").extractPath("/a/b"));
+            assertNull(UriPatternType.get(type, "/a/(.*)").extractPath("/b/c"));
+            assertNull(UriPatternType.get(type, "/a/(.*)").extractPath(null));
+        }
+    }
+
+    @Test
+    public void test_match_start_hands_the_group_to_path_before() {
+        AbstractRegexUriPatternMatcher matcher = (AbstractRegexUriPatternMatcher) UriPatternType.get(UriPatternType.REGEX, "/a/([0-9]+)");
+        int start = matcher.matchStart("/a/42");
+        assertEquals(3, start);
+        assertEquals("/a/", AbstractRegexUriPatternMatcher.pathBefore("/a/42", start));
+        assertEquals(AbstractRegexUriPatternMatcher.NO_MATCH, matcher.matchStart("/a/b"));
+        assertEquals(AbstractRegexUriPatternMatcher.NO_MATCH, matcher.matchStart("/b/42"));
+        assertTrue(matcher.matches("/a/42"));
+        assertFalse(matcher.matches(null));
+    }
+
+    private static void assertPrefix(String regex, String prefix) {
+        assertEquals(regex, prefix, AbstractRegexUriPatternMatcher.literalPrefix(regex));
+    }
+}